@@ -2,33 +2,46 @@ package com.github.mgurov.jhipsterpgrnd.config;
 
 import com.codahale.metrics.MetricRegistry;
 import com.codahale.metrics.ehcache.InstrumentedEhcache;
+import com.github.mgurov.jhipsterpgrnd.web.rest.util.IdempotencyKeyStore;
+import org.hibernate.annotations.Cache;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.config.BeanDefinition;
 import org.springframework.boot.autoconfigure.AutoConfigureAfter;
+import org.springframework.boot.autoconfigure.data.jpa.EntityManagerFactoryDependsOnPostProcessor;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.context.annotation.*;
 import org.springframework.cache.ehcache.EhCacheCacheManager;
-import org.springframework.util.Assert;
+import org.springframework.core.type.filter.AnnotationTypeFilter;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
+import org.springframework.util.StringUtils;
 
 import javax.annotation.PreDestroy;
 import javax.inject.Inject;
-import javax.persistence.EntityManager;
-import javax.persistence.PersistenceContext;
-import javax.persistence.metamodel.EntityType;
-import java.util.Set;
+import javax.persistence.Entity;
 import java.util.SortedSet;
 
+/**
+ * Configuration of the caches, including the Hibernate second-level cache regions.
+ * <p>
+ * A region is created for every cached entity and collection, before the entity manager factory starts so that
+ * Hibernate uses the instrumented regions.
+ * </p>
+ * <p>
+ * The responses of the idempotent requests are cached too, see {@link IdempotencyKeyStore}.
+ * </p>
+ */
 @SuppressWarnings("unused")
 @Configuration
 @EnableCaching
 @AutoConfigureAfter(value = { MetricsConfiguration.class, DatabaseConfiguration.class })
 public class CacheConfiguration {
 
-    private final Logger log = LoggerFactory.getLogger(CacheConfiguration.class);
+    private static final String ENTITY_PACKAGE = "com.github.mgurov.jhipsterpgrnd.domain";
 
-    @PersistenceContext
-    private EntityManager entityManager;
+    private final Logger log = LoggerFactory.getLogger(CacheConfiguration.class);
 
     @Inject
     private MetricRegistry metricRegistry;
@@ -50,24 +63,71 @@ public class CacheConfiguration {
         cacheManager = net.sf.ehcache.CacheManager.create();
         cacheManager.getConfiguration().setMaxBytesLocalHeap(jHipsterProperties.getCache().getEhcache().getMaxBytesLocalHeap());
         log.debug("Registering Ehcache Metrics gauges");
-        Set<EntityType<?>> entities = entityManager.getMetamodel().getEntities();
-        for (EntityType<?> entity : entities) {
-
-            String name = entity.getName();
-            if (name == null || entity.getJavaType() != null) {
-                name = entity.getJavaType().getName();
-            }
-            Assert.notNull(name, "entity cannot exist without a identifier");
+        ClassPathScanningCandidateComponentProvider scanner = new ClassPathScanningCandidateComponentProvider(false);
+        scanner.addIncludeFilter(new AnnotationTypeFilter(Entity.class));
+        for (BeanDefinition definition : scanner.findCandidateComponents(ENTITY_PACKAGE)) {
+            Class<?> entity = ClassUtils.resolveClassName(definition.getBeanClassName(), ClassUtils.getDefaultClassLoader());
+            JHipsterProperties.Cache.EntityRegion settings = jHipsterProperties.getCache().getEntities()
+                .getOrDefault(entity.getSimpleName(), new JHipsterProperties.Cache.EntityRegion());
 
-            net.sf.ehcache.Cache cache = cacheManager.getCache(name);
-            if (cache != null) {
-                cache.getCacheConfiguration().setTimeToLiveSeconds(jHipsterProperties.getCache().getTimeToLiveSeconds());
-                net.sf.ehcache.Ehcache decoratedCache = InstrumentedEhcache.instrument(metricRegistry, cache);
-                cacheManager.replaceCacheWithDecoratedCache(cache, decoratedCache);
+            Cache entityCache = entity.getAnnotation(Cache.class);
+            if (entityCache != null) {
+                registerCache(regionName(entityCache, entity.getName()), settings, jHipsterProperties.getCache());
             }
+            ReflectionUtils.doWithFields(entity,
+                field -> registerCache(regionName(field.getAnnotation(Cache.class), entity.getName() + "." + field.getName()),
+                    settings, jHipsterProperties.getCache()),
+                field -> field.isAnnotationPresent(Cache.class));
         }
+        JHipsterProperties.Http.Idempotency idempotency = jHipsterProperties.getHttp().getIdempotency();
+        JHipsterProperties.Cache.EntityRegion idempotencySettings = new JHipsterProperties.Cache.EntityRegion();
+        idempotencySettings.setTimeToLiveSeconds(idempotency.getTimeToLiveSeconds());
+        idempotencySettings.setMaxBytesLocalHeap(idempotency.getMaxBytesLocalHeap());
+        registerCache(IdempotencyKeyStore.CACHE_NAME, idempotencySettings, jHipsterProperties.getCache());
         EhCacheCacheManager ehCacheManager = new EhCacheCacheManager();
         ehCacheManager.setCacheManager(cacheManager);
         return ehCacheManager;
     }
+
+    private static String regionName(Cache cache, String defaultName) {
+        return StringUtils.hasText(cache.region()) ? cache.region() : defaultName;
+    }
+
+    /**
+     * Create the region unless ehcache.xml configures it, then instrument it.
+     */
+    private void registerCache(String name, JHipsterProperties.Cache.EntityRegion settings, JHipsterProperties.Cache defaults) {
+        int timeToLiveSeconds = settings.getTimeToLiveSeconds() != null ? settings.getTimeToLiveSeconds() : defaults.getTimeToLiveSeconds();
+        net.sf.ehcache.Cache cache = cacheManager.getCache(name);
+        if (cache == null) {
+            log.debug("Creating cache region {}", name);
+            net.sf.ehcache.config.CacheConfiguration configuration = new net.sf.ehcache.config.CacheConfiguration()
+                .name(name)
+                .eternal(false)
+                .timeToLiveSeconds(timeToLiveSeconds);
+            if (settings.getMaxBytesLocalHeap() != null) {
+                configuration.setMaxBytesLocalHeap(settings.getMaxBytesLocalHeap());
+            }
+            cache = new net.sf.ehcache.Cache(configuration);
+            cacheManager.addCache(cache);
+        } else {
+            if (settings.getMaxBytesLocalHeap() != null) {
+                log.warn("The cache region {} is configured by ehcache.xml, its maxBytesLocalHeap is ignored", name);
+            }
+            cache.getCacheConfiguration().setTimeToLiveSeconds(timeToLiveSeconds);
+        }
+        net.sf.ehcache.Ehcache decoratedCache = InstrumentedEhcache.instrument(metricRegistry, cache);
+        cacheManager.replaceCacheWithDecoratedCache(cache, decoratedCache);
+    }
+
+    /**
+     * Start the cache regions before the entity manager factory looks them up.
+     */
+    @Configuration
+    protected static class CacheManagerEntityManagerFactoryDependencyConfiguration extends EntityManagerFactoryDependsOnPostProcessor {
+
+        public CacheManagerEntityManagerFactoryDependencyConfiguration() {
+            super("cacheManager");
+        }
+    }
 }
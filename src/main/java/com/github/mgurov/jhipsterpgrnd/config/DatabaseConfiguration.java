@@ -1,5 +1,7 @@
 package com.github.mgurov.jhipsterpgrnd.config;
 
+import com.github.mgurov.jhipsterpgrnd.config.datasource.ReplicaRoutingDataSource;
+import com.github.mgurov.jhipsterpgrnd.config.datasource.StatementCountingDataSource;
 import com.github.mgurov.jhipsterpgrnd.config.liquibase.AsyncSpringLiquibase;
 
 import com.codahale.metrics.MetricRegistry;
@@ -8,12 +10,14 @@ import com.zaxxer.hikari.HikariDataSource;
 import liquibase.integration.spring.SpringLiquibase;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.MutablePropertyValues;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
 import org.springframework.boot.autoconfigure.jdbc.DataSourceBuilder;
 import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
 import org.springframework.boot.autoconfigure.liquibase.LiquibaseProperties;
-import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.bind.RelaxedDataBinder;
+import org.springframework.boot.bind.RelaxedPropertyResolver;
 import org.springframework.context.ApplicationContextException;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -25,7 +29,9 @@ import org.springframework.transaction.annotation.EnableTransactionManagement;
 
 import javax.inject.Inject;
 import javax.sql.DataSource;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 
 @Configuration
 @EnableJpaRepositories("com.github.mgurov.jhipsterpgrnd.repository")
@@ -38,12 +44,20 @@ public class DatabaseConfiguration {
     @Inject
     private Environment env;
 
+    @Inject
+    private JHipsterProperties jHipsterProperties;
+
     @Autowired(required = false)
     private MetricRegistry metricRegistry;
 
+    /**
+     * The pool of the database, or a {@link ReplicaRoutingDataSource} when read replicas are configured, with a pool
+     * by database. The "spring.datasource.hikari" properties apply to all the pools. When
+     * "jhipster.datasource.countStatements" is enabled, the statements are counted through a
+     * {@link StatementCountingDataSource}, which proxies every connection and statement.
+     */
     @Bean(destroyMethod = "close")
     @ConditionalOnExpression("#{!environment.acceptsProfiles('" + Constants.SPRING_PROFILE_CLOUD + "') && !environment.acceptsProfiles('" + Constants.SPRING_PROFILE_HEROKU + "')}")
-    @ConfigurationProperties(prefix = "spring.datasource.hikari")
     public DataSource dataSource(DataSourceProperties dataSourceProperties) {
         log.debug("Configuring Datasource");
         if (dataSourceProperties.getUrl() == null) {
@@ -53,20 +67,55 @@ public class DatabaseConfiguration {
 
             throw new ApplicationContextException("Database connection pool is not configured correctly");
         }
+        JHipsterProperties.Datasource datasource = jHipsterProperties.getDatasource();
+        if (datasource.getReplicas().isEmpty()) {
+            return countStatements(createPool(dataSourceProperties, null, dataSourceProperties.getUrl(),
+                dataSourceProperties.getUsername(), dataSourceProperties.getPassword()));
+        }
+        log.debug("Configuring {} read replicas", datasource.getReplicas().size());
+        HikariDataSource primary = createPool(dataSourceProperties, "primary", dataSourceProperties.getUrl(),
+            dataSourceProperties.getUsername(), dataSourceProperties.getPassword());
+        List<HikariDataSource> replicas = new ArrayList<>();
+        for (JHipsterProperties.Datasource.Replica replica : datasource.getReplicas()) {
+            replicas.add(createPool(dataSourceProperties, "replica-" + (replicas.size() + 1), replica.getUrl(),
+                replica.getUsername() != null ? replica.getUsername() : dataSourceProperties.getUsername(),
+                replica.getPassword() != null ? replica.getPassword() : dataSourceProperties.getPassword()));
+        }
+        return countStatements(new ReplicaRoutingDataSource(primary, replicas,
+            datasource.getMaxLagMillis(), datasource.getLagCheckIntervalMillis(), datasource.getLagQuery(),
+            metricRegistry != null ? metricRegistry : new MetricRegistry()));
+    }
+
+    private DataSource countStatements(DataSource dataSource) {
+        if (!jHipsterProperties.getDatasource().isCountStatements()) {
+            return dataSource;
+        }
+        log.debug("Counting the statements of the Datasource");
+        return new StatementCountingDataSource(dataSource);
+    }
+
+    private HikariDataSource createPool(DataSourceProperties dataSourceProperties, String poolName, String url,
+        String username, String password) {
         HikariDataSource hikariDataSource =  (HikariDataSource) DataSourceBuilder
                 .create(dataSourceProperties.getClassLoader())
                 .type(HikariDataSource.class)
                 .driverClassName(dataSourceProperties.getDriverClassName())
-                .url(dataSourceProperties.getUrl())
-                .username(dataSourceProperties.getUsername())
-                .password(dataSourceProperties.getPassword())
+                .url(url)
+                .username(username)
+                .password(password)
                 .build();
+        new RelaxedDataBinder(hikariDataSource).bind(new MutablePropertyValues(
+            new RelaxedPropertyResolver(env, "spring.datasource.hikari.").getSubProperties("")));
+        if (poolName != null) {
+            hikariDataSource.setPoolName(poolName);
+        }
 
         if (metricRegistry != null) {
             hikariDataSource.setMetricRegistry(metricRegistry);
         }
         return hikariDataSource;
     }
+
     @Bean
     public SpringLiquibase liquibase(DataSource dataSource, DataSourceProperties dataSourceProperties,
         LiquibaseProperties liquibaseProperties) {
@@ -5,6 +5,11 @@ import javax.validation.constraints.NotNull;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.web.cors.CorsConfiguration;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
 
 /**
  * Properties specific to JHipster.
@@ -34,6 +39,14 @@ public class JHipsterProperties {
 
     private final Ribbon ribbon = new Ribbon();
 
+    private final WriteBehind writeBehind = new WriteBehind();
+
+    private final Archive archive = new Archive();
+
+    private final Datasource datasource = new Datasource();
+
+    private final Audit audit = new Audit();
+
     public Async getAsync() {
         return async;
     }
@@ -70,6 +83,22 @@ public class JHipsterProperties {
         return ribbon;
     }
 
+    public WriteBehind getWriteBehind() {
+        return writeBehind;
+    }
+
+    public Archive getArchive() {
+        return archive;
+    }
+
+    public Datasource getDatasource() {
+        return datasource;
+    }
+
+    public Audit getAudit() {
+        return audit;
+    }
+
     public static class Async {
 
         private int corePoolSize = 2;
@@ -107,10 +136,16 @@ public class JHipsterProperties {
 
         private final Cache cache = new Cache();
 
+        private final Idempotency idempotency = new Idempotency();
+
         public Cache getCache() {
             return cache;
         }
 
+        public Idempotency getIdempotency() {
+            return idempotency;
+        }
+
         public static class Cache {
 
             private int timeToLiveInDays = 1461;
@@ -123,6 +158,32 @@ public class JHipsterProperties {
                 this.timeToLiveInDays = timeToLiveInDays;
             }
         }
+
+        /**
+         * Responses kept for the requests retried with the same Idempotency-Key header.
+         */
+        public static class Idempotency {
+
+            private int timeToLiveSeconds = 86400;
+
+            private String maxBytesLocalHeap = "10%";
+
+            public int getTimeToLiveSeconds() {
+                return timeToLiveSeconds;
+            }
+
+            public void setTimeToLiveSeconds(int timeToLiveSeconds) {
+                this.timeToLiveSeconds = timeToLiveSeconds;
+            }
+
+            public String getMaxBytesLocalHeap() {
+                return maxBytesLocalHeap;
+            }
+
+            public void setMaxBytesLocalHeap(String maxBytesLocalHeap) {
+                this.maxBytesLocalHeap = maxBytesLocalHeap;
+            }
+        }
     }
 
     public static class Cache {
@@ -131,6 +192,8 @@ public class JHipsterProperties {
 
         private final Ehcache ehcache = new Ehcache();
 
+        private final Map<String, EntityRegion> entities = new HashMap<>();
+
         public int getTimeToLiveSeconds() {
             return timeToLiveSeconds;
         }
@@ -143,6 +206,14 @@ public class JHipsterProperties {
             return ehcache;
         }
 
+        /**
+         * The cache region settings of the entities, by entity name. They apply to the cached collections of the
+         * entity as well.
+         */
+        public Map<String, EntityRegion> getEntities() {
+            return entities;
+        }
+
         public static class Ehcache {
 
             private String maxBytesLocalHeap = "16M";
@@ -155,6 +226,36 @@ public class JHipsterProperties {
                 this.maxBytesLocalHeap = maxBytesLocalHeap;
             }
         }
+
+        public static class EntityRegion {
+
+            private Integer timeToLiveSeconds;
+
+            private String maxBytesLocalHeap;
+
+            /**
+             * The time to live of the region, defaults to the one of all the regions.
+             */
+            public Integer getTimeToLiveSeconds() {
+                return timeToLiveSeconds;
+            }
+
+            public void setTimeToLiveSeconds(Integer timeToLiveSeconds) {
+                this.timeToLiveSeconds = timeToLiveSeconds;
+            }
+
+            /**
+             * The heap of the region, in bytes or as a percentage of the heap of all the regions, defaults to
+             * sharing the heap of all the regions.
+             */
+            public String getMaxBytesLocalHeap() {
+                return maxBytesLocalHeap;
+            }
+
+            public void setMaxBytesLocalHeap(String maxBytesLocalHeap) {
+                this.maxBytesLocalHeap = maxBytesLocalHeap;
+            }
+        }
     }
 
     public static class Mail {
@@ -486,6 +587,310 @@ public class JHipsterProperties {
         public void setDisplayOnActiveProfiles(String[] displayOnActiveProfiles) {
             this.displayOnActiveProfiles = displayOnActiveProfiles;
         }
-    }  
+    }
+
+    /**
+     * Write-behind of the author timestamp updates, used by AuthorTimestampWriter.
+     */
+    public static class WriteBehind {
+
+        private boolean enabled = false;
+
+        private long flushIntervalMillis = 1000;
+
+        private int batchSize = 500;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public long getFlushIntervalMillis() {
+            return flushIntervalMillis;
+        }
+
+        public void setFlushIntervalMillis(long flushIntervalMillis) {
+            this.flushIntervalMillis = flushIntervalMillis;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+    }
+
+    /**
+     * Archival of the old authors, used by AuthorService.
+     */
+    public static class Archive {
+
+        private boolean enabled = false;
+
+        private int maxAgeDays = 365;
+
+        private int batchSize = 500;
+
+        private String cron = "0 0 2 * * ?";
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getMaxAgeDays() {
+            return maxAgeDays;
+        }
+
+        public void setMaxAgeDays(int maxAgeDays) {
+            this.maxAgeDays = maxAgeDays;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public String getCron() {
+            return cron;
+        }
+
+        public void setCron(String cron) {
+            this.cron = cron;
+        }
+    }
+
+    /**
+     * Asynchronous writing of the audit events, used by CustomAuditEventRepository.
+     */
+    public static class Audit {
+
+        /**
+         * What to do with an audit event when the queue is full.
+         */
+        public enum BackPressure {
+            /** Wait for the writer to make room in the queue, dropping the event after the block timeout. */
+            BLOCK,
+            /** Drop the event, counting it in the "dropped" metric. */
+            DROP,
+            /** Write the event on the calling thread. */
+            SYNC
+        }
+
+        private boolean async = false;
+
+        private int queueCapacity = 10000;
 
+        private int batchSize = 500;
+
+        private long flushIntervalMillis = 1000;
+
+        private BackPressure backPressure = BackPressure.SYNC;
+
+        private long blockTimeoutMillis = 1000;
+
+        public boolean isAsync() {
+            return async;
+        }
+
+        public void setAsync(boolean async) {
+            this.async = async;
+        }
+
+        public int getQueueCapacity() {
+            return queueCapacity;
+        }
+
+        public void setQueueCapacity(int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public long getFlushIntervalMillis() {
+            return flushIntervalMillis;
+        }
+
+        public void setFlushIntervalMillis(long flushIntervalMillis) {
+            this.flushIntervalMillis = flushIntervalMillis;
+        }
+
+        public BackPressure getBackPressure() {
+            return backPressure;
+        }
+
+        public void setBackPressure(BackPressure backPressure) {
+            this.backPressure = backPressure;
+        }
+
+        public long getBlockTimeoutMillis() {
+            return blockTimeoutMillis;
+        }
+
+        public void setBlockTimeoutMillis(long blockTimeoutMillis) {
+            this.blockTimeoutMillis = blockTimeoutMillis;
+        }
+    }
+
+    /**
+     * Read replicas of the database, used by DatabaseConfiguration, and statement counting of the requests, used by
+     * StatementCountingFilter. The JDBC batching is set by the "hibernate.jdbc.batch_size" and related
+     * "spring.jpa.properties" of the profiles.
+     */
+    public static class Datasource {
+
+        private boolean countStatements = false;
+
+        private int statementBudget = 50;
+
+        private final List<Replica> replicas = new ArrayList<>();
+
+        private long maxLagMillis = 10000;
+
+        private long lagCheckIntervalMillis = 5000;
+
+        private String lagQuery = "SELECT CASE WHEN pg_last_xlog_receive_location() = pg_last_xlog_replay_location() THEN 0 " +
+            "ELSE EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) * 1000 END";
+
+        public boolean isCountStatements() {
+            return countStatements;
+        }
+
+        public void setCountStatements(boolean countStatements) {
+            this.countStatements = countStatements;
+        }
+
+        public int getStatementBudget() {
+            return statementBudget;
+        }
+
+        public void setStatementBudget(int statementBudget) {
+            this.statementBudget = statementBudget;
+        }
+
+        public List<Replica> getReplicas() {
+            return replicas;
+        }
+
+        public long getMaxLagMillis() {
+            return maxLagMillis;
+        }
+
+        public void setMaxLagMillis(long maxLagMillis) {
+            this.maxLagMillis = maxLagMillis;
+        }
+
+        public long getLagCheckIntervalMillis() {
+            return lagCheckIntervalMillis;
+        }
+
+        public void setLagCheckIntervalMillis(long lagCheckIntervalMillis) {
+            this.lagCheckIntervalMillis = lagCheckIntervalMillis;
+        }
+
+        public String getLagQuery() {
+            return lagQuery;
+        }
+
+        public void setLagQuery(String lagQuery) {
+            this.lagQuery = lagQuery;
+        }
+
+        /**
+             * Number of statements per JDBC batch, 0 disabling the batches.
+             */
+            private int batchSize = 0;
+
+            private boolean orderInserts = true;
+
+            private boolean orderUpdates = true;
+
+            private boolean versionedData = true;
+
+            public int getBatchSize() {
+                return batchSize;
+            }
+
+            public void setBatchSize(int batchSize) {
+                this.batchSize = batchSize;
+            }
+
+            public boolean isOrderInserts() {
+                return orderInserts;
+            }
+
+            public void setOrderInserts(boolean orderInserts) {
+                this.orderInserts = orderInserts;
+            }
+
+            public boolean isOrderUpdates() {
+                return orderUpdates;
+            }
+
+            public void setOrderUpdates(boolean orderUpdates) {
+                this.orderUpdates = orderUpdates;
+            }
+
+            public boolean isVersionedData() {
+                return versionedData;
+            }
+
+            public void setVersionedData(boolean versionedData) {
+                this.versionedData = versionedData;
+            }
+        }
+
+        /**
+         * A read replica, connected with the credentials of the primary database unless given.
+         */
+        public static class Replica {
+
+            private String url;
+
+            private String username;
+
+            private String password;
+
+            public String getUrl() {
+                return url;
+            }
+
+            public void setUrl(String url) {
+                this.url = url;
+            }
+
+            public String getUsername() {
+                return username;
+            }
+
+            public void setUsername(String username) {
+                this.username = username;
+            }
+
+            public String getPassword() {
+                return password;
+            }
+
+            public void setPassword(String password) {
+                this.password = password;
+            }
+        }
+    }
 }
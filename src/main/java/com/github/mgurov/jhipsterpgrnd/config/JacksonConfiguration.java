@@ -1,18 +1,31 @@
 package com.github.mgurov.jhipsterpgrnd.config;
 
 import com.github.mgurov.jhipsterpgrnd.domain.util.*;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import java.time.*;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.AbstractJackson2HttpMessageConverter;
 import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurerAdapter;
+
+import java.util.List;
 
 @Configuration
-public class JacksonConfiguration {
+public class JacksonConfiguration extends WebMvcConfigurerAdapter {
+
+    public static final String APPLICATION_SMILE_VALUE = "application/x-jackson-smile";
+
+    public static final String APPLICATION_CBOR_VALUE = "application/cbor";
 
     @Bean
-    Jackson2ObjectMapperBuilder jackson2ObjectMapperBuilder() {
+    public Jackson2ObjectMapperBuilder jackson2ObjectMapperBuilder() {
         JavaTimeModule module = new JavaTimeModule();
         module.addSerializer(OffsetDateTime.class, JSR310DateTimeSerializer.INSTANCE);
         module.addSerializer(ZonedDateTime.class, JSR310DateTimeSerializer.INSTANCE);
@@ -24,4 +37,30 @@ public class JacksonConfiguration {
                 .findModulesViaServiceLoader(true)
                 .modulesToInstall(module);
     }
+
+    /**
+     * Add Smile, the binary JSON of Jackson, and CBOR, the binary JSON of RFC 7049, for the clients accepting them.
+     * They come after the JSON converter, which stays the default, and use the same modules.
+     */
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.add(new AbstractJackson2HttpMessageConverter(smileObjectMapper(jackson2ObjectMapperBuilder()),
+            MediaType.parseMediaType(APPLICATION_SMILE_VALUE)) {
+        });
+        converters.add(new AbstractJackson2HttpMessageConverter(cborObjectMapper(jackson2ObjectMapperBuilder()),
+            MediaType.parseMediaType(APPLICATION_CBOR_VALUE)) {
+        });
+    }
+
+    public static ObjectMapper smileObjectMapper(Jackson2ObjectMapperBuilder builder) {
+        ObjectMapper objectMapper = new ObjectMapper(new SmileFactory());
+        builder.configure(objectMapper);
+        return objectMapper;
+    }
+
+    public static ObjectMapper cborObjectMapper(Jackson2ObjectMapperBuilder builder) {
+        ObjectMapper objectMapper = new ObjectMapper(new CBORFactory());
+        builder.configure(objectMapper);
+        return objectMapper;
+    }
 }
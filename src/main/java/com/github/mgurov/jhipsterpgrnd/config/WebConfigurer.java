@@ -4,6 +4,7 @@ import com.codahale.metrics.MetricRegistry;
 import com.codahale.metrics.servlet.InstrumentedFilter;
 import com.codahale.metrics.servlets.MetricsServlet;
 import com.github.mgurov.jhipsterpgrnd.web.filter.CachingHttpHeadersFilter;
+import com.github.mgurov.jhipsterpgrnd.web.filter.StatementCountingFilter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -49,6 +50,9 @@ public class WebConfigurer implements ServletContextInitializer, EmbeddedServlet
         }
         EnumSet<DispatcherType> disps = EnumSet.of(DispatcherType.REQUEST, DispatcherType.FORWARD, DispatcherType.ASYNC);
         initMetrics(servletContext, disps);
+        if (jHipsterProperties.getDatasource().isCountStatements()) {
+            initStatementCountingFilter(servletContext, disps);
+        }
         if (env.acceptsProfiles(Constants.SPRING_PROFILE_PRODUCTION)) {
             initCachingHttpHeadersFilter(servletContext, disps);
         }
@@ -113,6 +117,23 @@ public class WebConfigurer implements ServletContextInitializer, EmbeddedServlet
         cachingHttpHeadersFilter.setAsyncSupported(true);
     }
 
+    /**
+     * Initializes the statement counting Filter, sending the counts in headers in development and measuring them in
+     * production.
+     */
+    private void initStatementCountingFilter(ServletContext servletContext, EnumSet<DispatcherType> disps) {
+        log.debug("Registering Statement Counting Filter");
+        FilterRegistration.Dynamic statementCountingFilter =
+            servletContext.addFilter("statementCountingFilter",
+                new StatementCountingFilter(jHipsterProperties,
+                    env.acceptsProfiles(Constants.SPRING_PROFILE_DEVELOPMENT),
+                    env.acceptsProfiles(Constants.SPRING_PROFILE_PRODUCTION) ? metricRegistry : null));
+
+        statementCountingFilter.addMappingForUrlPatterns(disps, true, "/api/*");
+        statementCountingFilter.addMappingForUrlPatterns(disps, true, "/management/*");
+        statementCountingFilter.setAsyncSupported(true);
+    }
+
     /**
      * Initializes Metrics.
      */
@@ -0,0 +1,247 @@
+package com.github.mgurov.jhipsterpgrnd.config.datasource;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+import com.zaxxer.hikari.HikariDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.Closeable;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * DataSource sending the read-only transactions to read replicas, and everything else to the primary database.
+ * <p>
+ * The connections are only taken from the pools on their first use, once the transaction is known to be read-only
+ * or not. A read-only method called within a read-write transaction uses the connection of this transaction, so it
+ * sees its writes.
+ * </p>
+ * <p>
+ * The lag of each replica is checked every lag check interval. A replica lagging more than the maximum lag, or
+ * failing the check, is not used until it catches up: the read-only transactions are sent to the other replicas,
+ * in turn, or to the primary database when none is available. The lag of each replica is measured by the
+ * "replica-N.lag" gauges, -1 when unknown, and the transactions falling back to the primary database by the
+ * "fallbacks" counter of this DataSource. Each pool has its own Hikari metrics.
+ * </p>
+ * <p>
+ * The reads whose results are cached until the next write must not be sent to a replica, which may not have caught
+ * up with this write yet: see {@link #readFromPrimary(PlatformTransactionManager, Supplier)}.
+ * </p>
+ */
+public class ReplicaRoutingDataSource extends LazyConnectionDataSourceProxy implements Closeable {
+
+    private static final String PRIMARY = "primary";
+
+    private static final long UNKNOWN_LAG = -1;
+
+    /**
+     * Key of the transaction resource holding the lookup key of the pool a read-only transaction was sent to.
+     */
+    private static final Object ROUTE_RESOURCE = new Object();
+
+    /**
+     * Number of the instances not closed yet: without any, there are no replicas to avoid.
+     */
+    private static final AtomicInteger openInstances = new AtomicInteger();
+
+    private final Logger log = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+
+    private final HikariDataSource primary;
+
+    private final List<Replica> replicas = new ArrayList<>();
+
+    private final long maxLagMillis;
+
+    private final String lagQuery;
+
+    private final AtomicInteger nextReplica = new AtomicInteger();
+
+    private final ScheduledExecutorService lagChecker;
+
+    private final Counter fallbacks;
+
+    /**
+     * @param primary the pool of the primary database
+     * @param replicaPools the pools of the replicas
+     * @param maxLagMillis the maximum lag of a replica to be used
+     * @param lagCheckIntervalMillis the interval between the lag checks of the replicas
+     * @param lagQuery the query returning the lag of a replica, in milliseconds
+     * @param metricRegistry the registry of the metrics
+     */
+    public ReplicaRoutingDataSource(HikariDataSource primary, List<HikariDataSource> replicaPools, long maxLagMillis,
+        long lagCheckIntervalMillis, String lagQuery, MetricRegistry metricRegistry) {
+        this.primary = primary;
+        this.maxLagMillis = maxLagMillis;
+        this.lagQuery = lagQuery;
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        for (HikariDataSource pool : replicaPools) {
+            Replica replica = new Replica(pool);
+            replicas.add(replica);
+            targets.put(pool.getPoolName(), pool);
+            metricRegistry.register(MetricRegistry.name(ReplicaRoutingDataSource.class, pool.getPoolName(), "lag"),
+                (Gauge<Long>) () -> replica.lagMillis);
+        }
+        fallbacks = metricRegistry.counter(MetricRegistry.name(ReplicaRoutingDataSource.class, "fallbacks"));
+
+        AbstractRoutingDataSource router = new AbstractRoutingDataSource() {
+            @Override
+            protected Object determineCurrentLookupKey() {
+                if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+                    return PRIMARY;
+                }
+                Object key = selectReplica();
+                if (TransactionSynchronizationManager.isSynchronizationActive()
+                    && !TransactionSynchronizationManager.hasResource(ROUTE_RESOURCE)) {
+                    TransactionSynchronizationManager.bindResource(ROUTE_RESOURCE, key);
+                    TransactionSynchronizationManager.registerSynchronization(new RouteSynchronization(key));
+                }
+                return key;
+            }
+        };
+        router.setTargetDataSources(targets);
+        router.setDefaultTargetDataSource(primary);
+        router.setLenientFallback(false);
+        router.afterPropertiesSet();
+        setTargetDataSource(router);
+        afterPropertiesSet();
+
+        lagChecker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "replica-lag-checker");
+            thread.setDaemon(true);
+            return thread;
+        });
+        lagChecker.scheduleWithFixedDelay(this::checkLags, 0, lagCheckIntervalMillis, TimeUnit.MILLISECONDS);
+        openInstances.incrementAndGet();
+    }
+
+    /**
+     * Read from the primary database a value which is cached until the next write.
+     * <p>
+     * The read joins the current transaction unless it is read-only and may be sent to a replica, in which case it
+     * runs in a new read-write transaction, at the cost of a second connection. It joins the read-only transactions
+     * already sent to the primary database, and all of them when there are no replicas.
+     * </p>
+     *
+     * @param transactionManager the transaction manager
+     * @param read the read
+     * @param <T> the type of the value
+     * @return the value
+     */
+    public static <T> T readFromPrimary(PlatformTransactionManager transactionManager, Supplier<T> read) {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly() || openInstances.get() == 0
+            || PRIMARY.equals(TransactionSynchronizationManager.getResource(ROUTE_RESOURCE))) {
+            return read.get();
+        }
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        return transactionTemplate.execute(status -> read.get());
+    }
+
+    private Object selectReplica() {
+        int first = nextReplica.getAndIncrement();
+        for (int i = 0; i < replicas.size(); i++) {
+            Replica replica = replicas.get(Math.floorMod(first + i, replicas.size()));
+            if (replica.isAvailable()) {
+                return replica.pool.getPoolName();
+            }
+        }
+        fallbacks.inc();
+        return PRIMARY;
+    }
+
+    void checkLags() {
+        for (Replica replica : replicas) {
+            boolean wasAvailable = replica.isAvailable();
+            try (Connection connection = replica.pool.getConnection();
+                 Statement statement = connection.createStatement();
+                 ResultSet resultSet = statement.executeQuery(lagQuery)) {
+                replica.lagMillis = resultSet.next() ? Math.max(resultSet.getLong(1), 0) : UNKNOWN_LAG;
+            } catch (SQLException | RuntimeException e) {
+                log.debug("Could not check the lag of the read replica {}: {}", replica.pool.getPoolName(), e.getMessage());
+                replica.lagMillis = UNKNOWN_LAG;
+            }
+            if (wasAvailable && !replica.isAvailable()) {
+                log.warn("Not using the read replica {} anymore, its lag is {} ms", replica.pool.getPoolName(), replica.lagMillis);
+            } else if (!wasAvailable && replica.isAvailable()) {
+                log.info("Using the read replica {}, its lag is {} ms", replica.pool.getPoolName(), replica.lagMillis);
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        if (lagChecker.isShutdown()) {
+            return;
+        }
+        openInstances.decrementAndGet();
+        lagChecker.shutdownNow();
+        for (Replica replica : replicas) {
+            replica.pool.close();
+        }
+        primary.close();
+    }
+
+    /**
+     * Keeps the route of a read-only transaction bound to it only, while it is not suspended.
+     */
+    private static final class RouteSynchronization extends TransactionSynchronizationAdapter {
+
+        private final Object key;
+
+        private RouteSynchronization(Object key) {
+            this.key = key;
+        }
+
+        @Override
+        public void suspend() {
+            TransactionSynchronizationManager.unbindResourceIfPossible(ROUTE_RESOURCE);
+        }
+
+        @Override
+        public void resume() {
+            TransactionSynchronizationManager.bindResource(ROUTE_RESOURCE, key);
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(ROUTE_RESOURCE);
+        }
+    }
+
+    private class Replica {
+
+        private final HikariDataSource pool;
+
+        private volatile long lagMillis = UNKNOWN_LAG;
+
+        private Replica(HikariDataSource pool) {
+            this.pool = pool;
+        }
+
+        private boolean isAvailable() {
+            long lag = lagMillis;
+            return lag != UNKNOWN_LAG && lag <= maxLagMillis;
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.github.mgurov.jhipsterpgrnd.config.datasource;
+
+/**
+ * Count of the JDBC statements executed by the current thread through a {@link StatementCountingDataSource}, and
+ * of the time spent executing them.
+ * <p>
+ * A batch is executed in a single round trip, so it counts as one statement whatever the number of statements added
+ * to it. The time of a query does not include the reading of its results.
+ * </p>
+ */
+public final class StatementCounter {
+
+    private static final ThreadLocal<StatementCounter> CURRENT = new ThreadLocal<>();
+
+    private int statements;
+
+    private int batches;
+
+    private int batchedStatements;
+
+    private long jdbcNanos;
+
+    private StatementCounter() {
+    }
+
+    /**
+     * Start counting the statements of the current thread, replacing its current counter if any.
+     *
+     * @return the counter
+     */
+    public static StatementCounter start() {
+        StatementCounter counter = new StatementCounter();
+        CURRENT.set(counter);
+        return counter;
+    }
+
+    /**
+     * @return the counter of the current thread, or null if its statements are not counted
+     */
+    public static StatementCounter current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Stop counting the statements of the current thread, the counts being kept.
+     */
+    public void stop() {
+        if (CURRENT.get() == this) {
+            CURRENT.remove();
+        }
+    }
+
+    void statementExecuted() {
+        statements++;
+    }
+
+    void batchExecuted() {
+        statements++;
+        batches++;
+    }
+
+    void statementBatched() {
+        batchedStatements++;
+    }
+
+    void jdbcTimeElapsed(long nanos) {
+        jdbcNanos += nanos;
+    }
+
+    /**
+     * @return the number of round trips: the statements executed on their own and the batches
+     */
+    public int getStatements() {
+        return statements;
+    }
+
+    /**
+     * @return the number of batches executed
+     */
+    public int getBatches() {
+        return batches;
+    }
+
+    /**
+     * @return the number of statements added to the batches
+     */
+    public int getBatchedStatements() {
+        return batchedStatements;
+    }
+
+    /**
+     * @return the time spent executing the statements and the batches, in nanoseconds
+     */
+    public long getJdbcNanos() {
+        return jdbcNanos;
+    }
+
+    @Override
+    public String toString() {
+        return "StatementCounter{" +
+            "statements=" + statements +
+            ", batches=" + batches +
+            ", batchedStatements=" + batchedStatements +
+            ", jdbcNanos=" + jdbcNanos +
+            '}';
+    }
+}
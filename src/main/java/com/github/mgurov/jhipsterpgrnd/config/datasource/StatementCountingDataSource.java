@@ -0,0 +1,106 @@
+package com.github.mgurov.jhipsterpgrnd.config.datasource;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * DataSource counting and timing the statements executed through its connections, see {@link StatementCounter}.
+ * <p>
+ * Nothing is counted by the threads without a counter, whose statements only go through a proxy.
+ * </p>
+ */
+public class StatementCountingDataSource extends DelegatingDataSource implements Closeable {
+
+    public StatementCountingDataSource(DataSource targetDataSource) {
+        super(targetDataSource);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return proxyConnection(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return proxyConnection(super.getConnection(username, password));
+    }
+
+    /**
+     * Close the target DataSource, if it can be.
+     */
+    @Override
+    public void close() throws IOException {
+        if (getTargetDataSource() instanceof Closeable) {
+            ((Closeable) getTargetDataSource()).close();
+        }
+    }
+
+    private static Connection proxyConnection(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(StatementCountingDataSource.class.getClassLoader(),
+            new Class<?>[]{Connection.class}, (proxy, method, args) -> {
+                if (isIdentityMethod(method)) {
+                    return identityMethod(proxy, method, args);
+                }
+                Object result = invoke(connection, method, args);
+                if (result instanceof Statement) {
+                    return proxyStatement((Statement) result, method.getReturnType(), (Connection) proxy);
+                }
+                return result;
+            });
+    }
+
+    private static Object proxyStatement(Statement statement, Class<?> statementType, Connection connection) {
+        return Proxy.newProxyInstance(StatementCountingDataSource.class.getClassLoader(),
+            new Class<?>[]{statementType}, (proxy, method, args) -> {
+                if (isIdentityMethod(method)) {
+                    return identityMethod(proxy, method, args);
+                }
+                if (method.getName().equals("getConnection")) {
+                    return connection;
+                }
+                StatementCounter counter = StatementCounter.current();
+                if (counter == null || !method.getName().startsWith("execute")) {
+                    if (counter != null && method.getName().equals("addBatch")) {
+                        counter.statementBatched();
+                    }
+                    return invoke(statement, method, args);
+                }
+                if (method.getName().equals("executeBatch") || method.getName().equals("executeLargeBatch")) {
+                    counter.batchExecuted();
+                } else {
+                    counter.statementExecuted();
+                }
+                long start = System.nanoTime();
+                try {
+                    return invoke(statement, method, args);
+                } finally {
+                    counter.jdbcTimeElapsed(System.nanoTime() - start);
+                }
+            });
+    }
+
+    private static boolean isIdentityMethod(Method method) {
+        return method.getName().equals("equals") || method.getName().equals("hashCode");
+    }
+
+    private static Object identityMethod(Object proxy, Method method, Object[] args) {
+        return method.getName().equals("equals") ? proxy == args[0] : System.identityHashCode(proxy);
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+}
@@ -0,0 +1,4 @@
+/**
+ * DataSource specific code.
+ */
+package com.github.mgurov.jhipsterpgrnd.config.datasource;
@@ -0,0 +1,113 @@
+package com.github.mgurov.jhipsterpgrnd.domain;
+
+import javax.persistence.*;
+import java.io.Serializable;
+import java.time.ZonedDateTime;
+import java.util.Objects;
+
+/**
+ * A Author moved out of the author table once old, keeping its id.
+ */
+@Entity
+@Table(name = "author_archive")
+public class ArchivedAuthor implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @Id
+    private Long id;
+
+    @Column(name = "description")
+    private String description;
+
+    @Column(name = "timestamp")
+    private ZonedDateTime timestamp;
+
+    @Column(name = "version", nullable = false)
+    private Long version;
+
+    @Column(name = "archived_date", nullable = false)
+    private ZonedDateTime archivedDate;
+
+    public ArchivedAuthor() {
+    }
+
+    public ArchivedAuthor(Author author, ZonedDateTime archivedDate) {
+        this.id = author.getId();
+        this.description = author.getDescription();
+        this.timestamp = author.getTimestamp();
+        this.version = author.getVersion();
+        this.archivedDate = archivedDate;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public void setDescription(String description) {
+        this.description = description;
+    }
+
+    public ZonedDateTime getTimestamp() {
+        return timestamp;
+    }
+
+    public void setTimestamp(ZonedDateTime timestamp) {
+        this.timestamp = timestamp;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    public ZonedDateTime getArchivedDate() {
+        return archivedDate;
+    }
+
+    public void setArchivedDate(ZonedDateTime archivedDate) {
+        this.archivedDate = archivedDate;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        ArchivedAuthor archivedAuthor = (ArchivedAuthor) o;
+        if(archivedAuthor.id == null || id == null) {
+            return false;
+        }
+        return Objects.equals(id, archivedAuthor.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(id);
+    }
+
+    @Override
+    public String toString() {
+        return "ArchivedAuthor{" +
+            "id=" + id +
+            ", description='" + description + "'" +
+            ", timestamp='" + timestamp + "'" +
+            ", version='" + version + "'" +
+            ", archivedDate='" + archivedDate + "'" +
+            '}';
+    }
+}
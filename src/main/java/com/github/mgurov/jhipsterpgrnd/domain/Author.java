@@ -2,6 +2,8 @@ package com.github.mgurov.jhipsterpgrnd.domain;
 
 import org.hibernate.annotations.Cache;
 import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
 
 import javax.persistence.*;
 import java.io.Serializable;
@@ -19,7 +21,15 @@ public class Author implements Serializable {
     private static final long serialVersionUID = 1L;
 
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "authorSequenceGenerator")
+    @GenericGenerator(name = "authorSequenceGenerator",
+        strategy = "org.hibernate.id.enhanced.SequenceStyleGenerator",
+        parameters = {
+            @Parameter(name = "sequence_name", value = "author_seq"),
+            @Parameter(name = "initial_value", value = "1000"),
+            @Parameter(name = "increment_size", value = "50"),
+            @Parameter(name = "optimizer", value = "pooled")
+        })
     private Long id;
 
     @Column(name = "description")
@@ -28,6 +38,10 @@ public class Author implements Serializable {
     @Column(name = "timestamp")
     private ZonedDateTime timestamp;
 
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+
     public Long getId() {
         return id;
     }
@@ -52,6 +66,14 @@ public class Author implements Serializable {
         this.timestamp = timestamp;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) {
@@ -78,6 +100,7 @@ public class Author implements Serializable {
             "id=" + id +
             ", description='" + description + "'" +
             ", timestamp='" + timestamp + "'" +
+            ", version='" + version + "'" +
             '}';
     }
 }
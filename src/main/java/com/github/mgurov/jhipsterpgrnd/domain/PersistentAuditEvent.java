@@ -1,5 +1,8 @@
 package com.github.mgurov.jhipsterpgrnd.domain;
 
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+
 import java.time.LocalDateTime;
 import javax.persistence.*;
 import javax.validation.constraints.NotNull;
@@ -15,7 +18,15 @@ import java.util.Map;
 public class PersistentAuditEvent {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "persistentAuditEventSequenceGenerator")
+    @GenericGenerator(name = "persistentAuditEventSequenceGenerator",
+        strategy = "org.hibernate.id.enhanced.SequenceStyleGenerator",
+        parameters = {
+            @Parameter(name = "sequence_name", value = "jhi_persistent_audit_event_seq"),
+            @Parameter(name = "initial_value", value = "1000"),
+            @Parameter(name = "increment_size", value = "50"),
+            @Parameter(name = "optimizer", value = "pooled")
+        })
     @Column(name = "event_id")
     private Long id;
 
@@ -0,0 +1,13 @@
+package com.github.mgurov.jhipsterpgrnd.repository;
+
+import com.github.mgurov.jhipsterpgrnd.domain.ArchivedAuthor;
+
+import org.springframework.data.jpa.repository.*;
+
+/**
+ * Spring Data JPA repository for the ArchivedAuthor entity.
+ */
+@SuppressWarnings("unused")
+public interface ArchivedAuthorRepository extends JpaRepository<ArchivedAuthor,Long> {
+
+}
@@ -2,8 +2,12 @@ package com.github.mgurov.jhipsterpgrnd.repository;
 
 import com.github.mgurov.jhipsterpgrnd.domain.Author;
 
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
 
+import java.time.ZonedDateTime;
 import java.util.List;
 
 /**
@@ -12,4 +16,37 @@ import java.util.List;
 @SuppressWarnings("unused")
 public interface AuthorRepository extends JpaRepository<Author,Long> {
 
+    @Query("select author from Author author")
+    Slice<Author> findSlice(Pageable pageable);
+
+    Slice<Author> findByIdGreaterThan(Long id, Pageable pageable);
+
+    Slice<Author> findByTimestampGreaterThanEqualAndTimestampLessThan(ZonedDateTime from, ZonedDateTime to,
+        Pageable pageable);
+
+    /**
+     * Seeks the authors following the (timestamp, id) of an author, up to a timestamp.
+     */
+    @Query("select author from Author author where author.timestamp < :to and (author.timestamp > :afterTimestamp" +
+        " or (author.timestamp = :afterTimestamp and author.id > :afterId))")
+    Slice<Author> findSliceAfter(@Param("afterTimestamp") ZonedDateTime afterTimestamp, @Param("afterId") Long afterId,
+        @Param("to") ZonedDateTime to, Pageable pageable);
+
+    /**
+     * @return the authors older than a timestamp, the ones without a timestamp excluded
+     */
+    List<Author> findByTimestampBefore(ZonedDateTime timestamp, Pageable pageable);
+
+    @Query("select min(author.id) from Author author")
+    Long findMinId();
+
+    @Query("select max(author.id) from Author author")
+    Long findMaxId();
+
+    /**
+     * @return the id and the description of the authors of an id range
+     */
+    @Query("select author.id, author.description from Author author where author.id between :fromId and :toId")
+    List<Object[]> findDescriptionsByIdBetween(@Param("fromId") Long fromId, @Param("toId") Long toId);
+
 }
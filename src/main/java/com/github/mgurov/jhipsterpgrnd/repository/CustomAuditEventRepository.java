@@ -1,23 +1,69 @@
 package com.github.mgurov.jhipsterpgrnd.repository;
 
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+import com.github.mgurov.jhipsterpgrnd.config.JHipsterProperties;
 import com.github.mgurov.jhipsterpgrnd.config.audit.AuditEventConverter;
 import com.github.mgurov.jhipsterpgrnd.domain.PersistentAuditEvent;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.actuate.audit.AuditEvent;
 import org.springframework.boot.actuate.audit.AuditEventRepository;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Repository;
-import org.springframework.transaction.annotation.Propagation;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import javax.inject.Inject;
+import javax.persistence.PersistenceException;
 import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Collectors;
 
 /**
  * An implementation of Spring Boot's AuditEventRepository.
+ *
+ * <p>
+ * When "jhipster.audit.async" is enabled, the events are added to a bounded queue and written in batched
+ * transactions every flush interval, or as soon as a batch is full, so that the requests do not wait for them. The
+ * pending events are written on shutdown too, but are lost if the application crashes, and are not found until
+ * written. When the queue is full, the events are handled according to "jhipster.audit.backPressure".
+ * </p>
+ * <p>
+ * The events of a failed batch are written one by one, and the ones failing again are queued for a later flush,
+ * until they failed {@link #MAX_ATTEMPTS} times: they are then logged and dropped so that they do not hold back the
+ * other events. Only the failures of the events themselves are counted: an integrity violation, or any failure
+ * once another event of the batch was written. When the first event fails otherwise, the database is considered
+ * unavailable: the events are queued again as they were and the next flushes are skipped for a while, the delay
+ * doubling with each failed flush up to {@link #MAX_BACK_OFF_MILLIS}.
+ * </p>
+ * <p>
+ * The number of pending events is measured by the "pending" gauge, the events dropped by the "dropped" counter and
+ * the events written on the calling thread because of a full queue by the "fallbacks" counter of this repository.
+ * </p>
  */
 @Repository
 public class CustomAuditEventRepository implements AuditEventRepository {
@@ -26,12 +72,70 @@ public class CustomAuditEventRepository implements AuditEventRepository {
 
     private static final String ANONYMOUS_USER = "anonymoususer";
 
+    private static final String PENDING_METRIC = MetricRegistry.name(CustomAuditEventRepository.class, "pending");
+
+    private static final String DROPPED_METRIC = MetricRegistry.name(CustomAuditEventRepository.class, "dropped");
+
+    private static final String FALLBACKS_METRIC = MetricRegistry.name(CustomAuditEventRepository.class, "fallbacks");
+
+    private static final long BLOCK_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    static final int MAX_ATTEMPTS = 3;
+
+    static final long MAX_BACK_OFF_MILLIS = 60000;
+
+    private final Logger log = LoggerFactory.getLogger(CustomAuditEventRepository.class);
+
     @Inject
     private PersistenceAuditEventRepository persistenceAuditEventRepository;
 
     @Inject
     private AuditEventConverter auditEventConverter;
 
+    @Inject
+    private PlatformTransactionManager transactionManager;
+
+    @Inject
+    private MetricRegistry metricRegistry;
+
+    @Inject
+    private JHipsterProperties jHipsterProperties;
+
+    @Inject
+    @Qualifier("taskExecutor")
+    private TaskExecutor taskExecutor;
+
+    private final Queue<PendingEvent> pendingEvents = new ConcurrentLinkedQueue<>();
+
+    /**
+     * The size of the queue, reserved before adding an event to it: ConcurrentLinkedQueue.size() is not constant time.
+     */
+    private final AtomicInteger pendingCount = new AtomicInteger();
+
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+
+    /**
+     * The time before which the flushes are skipped, the database being unavailable.
+     */
+    private volatile long backOffUntil;
+
+    private int failedFlushes;
+
+    private TransactionTemplate transactionTemplate;
+
+    private Counter dropped;
+
+    private Counter fallbacks;
+
+    @PostConstruct
+    public void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        metricRegistry.register(PENDING_METRIC, (Gauge<Integer>) pendingCount::get);
+        dropped = metricRegistry.counter(DROPPED_METRIC);
+        fallbacks = metricRegistry.counter(FALLBACKS_METRIC);
+    }
+
     @Override
     public List<AuditEvent> find(String principal, Date after) {
         Iterable<PersistentAuditEvent> persistentAuditEvents;
@@ -47,7 +151,6 @@ public class CustomAuditEventRepository implements AuditEventRepository {
     }
 
     @Override
-    @Transactional(propagation = Propagation.REQUIRES_NEW)
     public void add(AuditEvent event) {
         if (!AUTHORIZATION_FAILURE.equals(event.getType()) &&
             !ANONYMOUS_USER.equals(event.getPrincipal().toString())) {
@@ -58,7 +161,188 @@ public class CustomAuditEventRepository implements AuditEventRepository {
             Instant instant = Instant.ofEpochMilli(event.getTimestamp().getTime());
             persistentAuditEvent.setAuditEventDate(LocalDateTime.ofInstant(instant, ZoneId.systemDefault()));
             persistentAuditEvent.setData(auditEventConverter.convertDataToStrings(event.getData()));
-            persistenceAuditEventRepository.save(persistentAuditEvent);
+            JHipsterProperties.Audit audit = jHipsterProperties.getAudit();
+            if (!audit.isAsync()) {
+                writeBatch(Collections.singletonList(persistentAuditEvent));
+            } else if (enqueue(persistentAuditEvent, audit)) {
+                if (pendingCount.get() >= audit.getBatchSize()) {
+                    requestFlush();
+                }
+            } else if (audit.getBackPressure() != JHipsterProperties.Audit.BackPressure.SYNC) {
+                // Dropped rather than written when blocking timed out, the database being likely unavailable
+                dropped.inc();
+                log.warn("Dropped the audit event {} of {}, the queue is full", event.getType(), event.getPrincipal());
+            } else {
+                fallbacks.inc();
+                writeBatch(Collections.singletonList(persistentAuditEvent));
+            }
+        }
+    }
+
+    /**
+     * Add an event to the queue if there is room for it, or once there is with the BLOCK back-pressure, waiting at
+     * most "jhipster.audit.blockTimeoutMillis".
+     *
+     * @return false if the event could not be queued
+     */
+    private boolean enqueue(PersistentAuditEvent event, JHipsterProperties.Audit audit) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(audit.getBlockTimeoutMillis());
+        while (true) {
+            int count = pendingCount.get();
+            if (count < audit.getQueueCapacity()) {
+                if (pendingCount.compareAndSet(count, count + 1)) {
+                    pendingEvents.add(new PendingEvent(event));
+                    return true;
+                }
+            } else if (audit.getBackPressure() == JHipsterProperties.Audit.BackPressure.BLOCK
+                && deadline - System.nanoTime() > 0 && !Thread.currentThread().isInterrupted()) {
+                requestFlush();
+                LockSupport.parkNanos(BLOCK_PARK_NANOS);
+            } else {
+                return false;
+            }
+        }
+    }
+
+    private void requestFlush() {
+        if (flushRequested.compareAndSet(false, true)) {
+            try {
+                taskExecutor.execute(() -> {
+                    flushRequested.set(false);
+                    flush();
+                });
+            } catch (TaskRejectedException e) {
+                flushRequested.set(false);
+                log.warn("Could not flush the audit events early, they will be on schedule: {}", e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Write the pending events, in batched transactions.
+     * <p>
+     * This is scheduled to get fired every flush interval, on shutdown, and when a batch is full. It does nothing
+     * while backing off from an unavailable database.
+     * </p>
+     */
+    @Scheduled(initialDelayString = "${jhipster.audit.flushIntervalMillis:1000}",
+        fixedDelayString = "${jhipster.audit.flushIntervalMillis:1000}")
+    public synchronized void flush() {
+        if (System.currentTimeMillis() < backOffUntil) {
+            return;
+        }
+        writePending();
+    }
+
+    private synchronized void writePending() {
+        while (pendingCount.get() > 0) {
+            List<PendingEvent> batch = new ArrayList<>();
+            PendingEvent pending;
+            while (batch.size() < jHipsterProperties.getAudit().getBatchSize() && (pending = pendingEvents.poll()) != null) {
+                batch.add(pending);
+            }
+            if (batch.isEmpty()) {
+                // The event of a reserved slot is about to be added
+                return;
+            }
+            try {
+                writeBatch(batch.stream().map(PendingEvent::getEvent).collect(Collectors.toList()));
+                pendingCount.addAndGet(-batch.size());
+                failedFlushes = 0;
+                log.debug("Wrote {} audit events", batch.size());
+            } catch (DataAccessException | PersistenceException | TransactionException e) {
+                log.warn("Could not write {} audit events, writing them one by one: {}", batch.size(), e.getMessage());
+                if (!writeOneByOne(batch)) {
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Write the events of a failed batch one by one, queuing again the failing ones unless they failed too often, or
+     * all the remaining ones if the database looks unavailable.
+     *
+     * @return false if some events were queued again
+     */
+    private boolean writeOneByOne(List<PendingEvent> batch) {
+        boolean written = false;
+        boolean requeued = false;
+        for (int i = 0; i < batch.size(); i++) {
+            PendingEvent pending = batch.get(i);
+            try {
+                writeBatch(Collections.singletonList(pending.prepareRetry()));
+                pendingCount.decrementAndGet();
+                written = true;
+                failedFlushes = 0;
+            } catch (DataAccessException | PersistenceException | TransactionException e) {
+                if (!written && !(e instanceof DataIntegrityViolationException)) {
+                    // The failed event last, for the next flush not to start with it if it is the culprit after all
+                    pendingEvents.addAll(batch.subList(i + 1, batch.size()));
+                    pendingEvents.add(pending);
+                    backOff(e);
+                    return false;
+                }
+                if (++pending.attempts < MAX_ATTEMPTS) {
+                    pendingEvents.add(pending);
+                    requeued = true;
+                } else {
+                    pendingCount.decrementAndGet();
+                    dropped.inc();
+                    PersistentAuditEvent event = pending.getEvent();
+                    log.error("Dropped the audit event {} of {} at {} with {} after {} attempts: {}", event.getAuditEventType(),
+                        event.getPrincipal(), event.getAuditEventDate(), event.getData(), MAX_ATTEMPTS, e.getMessage());
+                }
+            }
+        }
+        return !requeued;
+    }
+
+    private void backOff(Exception e) {
+        failedFlushes++;
+        long delay = Math.min(jHipsterProperties.getAudit().getFlushIntervalMillis() << Math.min(failedFlushes - 1, 16),
+            MAX_BACK_OFF_MILLIS);
+        backOffUntil = System.currentTimeMillis() + delay;
+        log.warn("Could not write the audit events, the database looks unavailable, {} events kept for {} ms: {}",
+            pendingCount.get(), delay, e.getMessage());
+    }
+
+    private void writeBatch(List<PersistentAuditEvent> batch) {
+        transactionTemplate.execute(status -> persistenceAuditEventRepository.save(batch));
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (pendingCount.get() > 0) {
+            log.info("Writing {} audit events before shutdown", pendingCount.get());
+            writePending();
+        }
+    }
+
+    /**
+     * An event of the queue, with the number of times it failed to be written.
+     */
+    private static class PendingEvent {
+
+        private final PersistentAuditEvent event;
+
+        private int attempts;
+
+        PendingEvent(PersistentAuditEvent event) {
+            this.event = event;
+        }
+
+        PersistentAuditEvent getEvent() {
+            return event;
+        }
+
+        /**
+         * Detach the event from the failed transaction, which may have given it an id and a persistent data map.
+         */
+        PersistentAuditEvent prepareRetry() {
+            event.setId(null);
+            event.setData(new HashMap<>(event.getData()));
+            return event;
         }
     }
 }
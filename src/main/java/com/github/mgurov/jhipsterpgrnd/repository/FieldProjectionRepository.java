@@ -0,0 +1,72 @@
+package com.github.mgurov.jhipsterpgrnd.repository;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.stereotype.Repository;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.Tuple;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Root;
+import javax.persistence.criteria.Selection;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Repository reading some fields of the entities only, with a tuple query.
+ *
+ * <p>
+ * The entities are not loaded: only the columns of the selected fields are read, and no lazy association is
+ * initialized. The fields are trusted, they must be validated by the caller.
+ * </p>
+ */
+@Repository
+public class FieldProjectionRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Get a slice of the entities, reduced to some of their fields.
+     *
+     * @param entityClass the class of the entities
+     * @param fields the names of the basic attributes to select
+     * @param pageable the pagination information
+     * @return the values of the fields of each entity, by field name in the order of the given fields
+     */
+    public Slice<Map<String, Object>> findAll(Class<?> entityClass, List<String> fields, Pageable pageable) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = builder.createTupleQuery();
+        Root<?> root = query.from(entityClass);
+        List<Selection<?>> selections = new ArrayList<>(fields.size());
+        for (String field : fields) {
+            selections.add(root.get(field).alias(field));
+        }
+        query.multiselect(selections);
+        if (pageable.getSort() != null) {
+            query.orderBy(QueryUtils.toOrders(pageable.getSort(), root, builder));
+        }
+        // one more row tells whether there is a next slice, without counting
+        List<Tuple> tuples = entityManager.createQuery(query)
+            .setFirstResult(pageable.getOffset())
+            .setMaxResults(pageable.getPageSize() + 1)
+            .getResultList();
+
+        boolean hasNext = tuples.size() > pageable.getPageSize();
+        List<Map<String, Object>> content = new ArrayList<>(Math.min(tuples.size(), pageable.getPageSize()));
+        for (Tuple tuple : hasNext ? tuples.subList(0, pageable.getPageSize()) : tuples) {
+            Map<String, Object> values = new LinkedHashMap<>();
+            for (String field : fields) {
+                values.put(field, tuple.get(field));
+            }
+            content.add(values);
+        }
+        return new SliceImpl<>(content, pageable, hasNext);
+    }
+}
@@ -6,7 +6,11 @@ import java.time.LocalDateTime;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -19,4 +23,25 @@ public interface PersistenceAuditEventRepository extends JpaRepository<Persisten
     List<PersistentAuditEvent> findByPrincipalAndAuditEventDateAfter(String principal, LocalDateTime after);
 
     Page<PersistentAuditEvent> findAllByAuditEventDateBetween(LocalDateTime fromDate, LocalDateTime toDate, Pageable pageable);
+
+    /**
+     * @return the ids of a slice of the events of a date range, to be loaded with {@link #findAllWithDataByIdIn(Collection)}
+     */
+    @Query("select event.id from PersistentAuditEvent event where event.auditEventDate between :fromDate and :toDate")
+    Slice<Long> findIdSliceByAuditEventDateBetween(@Param("fromDate") LocalDateTime fromDate,
+        @Param("toDate") LocalDateTime toDate, Pageable pageable);
+
+    long countByAuditEventDateBetween(LocalDateTime fromDate, LocalDateTime toDate);
+
+    /**
+     * @return the ids of a slice of the events, to be loaded with {@link #findAllWithDataByIdIn(Collection)}
+     */
+    @Query("select event.id from PersistentAuditEvent event")
+    Slice<Long> findIdSlice(Pageable pageable);
+
+    /**
+     * @return the events of the given ids with their data, in no particular order
+     */
+    @Query("select distinct event from PersistentAuditEvent event left join fetch event.data where event.id in :ids")
+    List<PersistentAuditEvent> findAllWithDataByIdIn(@Param("ids") Collection<Long> ids);
 }
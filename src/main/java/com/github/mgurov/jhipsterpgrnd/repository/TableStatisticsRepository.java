@@ -0,0 +1,44 @@
+package com.github.mgurov.jhipsterpgrnd.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+import org.springframework.stereotype.Repository;
+
+import javax.inject.Inject;
+import javax.sql.DataSource;
+import java.util.Optional;
+
+/**
+ * Repository of the statistics the database keeps about its tables.
+ */
+@Repository
+public class TableStatisticsRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final boolean postgresql;
+
+    @Inject
+    public TableStatisticsRepository(DataSource dataSource) throws MetaDataAccessException {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.postgresql = "PostgreSQL".equals(JdbcUtils.extractDatabaseMetaData(dataSource, "getDatabaseProductName"));
+    }
+
+    /**
+     * Estimate the number of rows of a table from the PostgreSQL planner statistics, without scanning it.
+     *
+     * @param tableName the name of the table
+     * @return the estimated number of rows, or empty if the database is not PostgreSQL or the table was not analyzed
+     */
+    public Optional<Long> estimateRowCount(String tableName) {
+        if (!postgresql) {
+            return Optional.empty();
+        }
+        // reltuples is 0, or -1 since PostgreSQL 14, until the table is first analyzed
+        return jdbcTemplate.queryForList("select cast(reltuples as bigint) from pg_class where relname = ? and relkind = 'r'",
+            Long.class, tableName).stream()
+            .filter(estimate -> estimate > 0)
+            .findFirst();
+    }
+}
@@ -0,0 +1,65 @@
+package com.github.mgurov.jhipsterpgrnd.repository;
+
+import org.springframework.stereotype.Repository;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Expression;
+import javax.persistence.criteria.ParameterExpression;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Root;
+import javax.persistence.criteria.Selection;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Repository counting the entities by time bucket, with a GROUP BY query.
+ *
+ * <p>
+ * The buckets are identified by the date and time fields of a timestamp, "year", "month", "day", "hour" or
+ * "minute", extracted by the database in the time zone of the application. The fields are trusted, they must be
+ * validated by the caller.
+ * </p>
+ */
+@Repository
+public class TimeHistogramRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Count the entities of a time range by bucket.
+     *
+     * @param entityClass the class of the entities
+     * @param attribute the name of the timestamp attribute
+     * @param fields the date and time fields identifying a bucket, the largest first
+     * @param from the start of the time range, inclusive
+     * @param to the end of the time range, exclusive
+     * @return a row per non empty bucket: the values of the fields, as numbers, then the count
+     */
+    public List<Object[]> countByBucket(Class<?> entityClass, String attribute, List<String> fields,
+        ZonedDateTime from, ZonedDateTime to) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Object[]> query = builder.createQuery(Object[].class);
+        Root<?> root = query.from(entityClass);
+        Path<ZonedDateTime> timestamp = root.get(attribute);
+        List<Expression<?>> buckets = new ArrayList<>(fields.size());
+        for (String field : fields) {
+            buckets.add(builder.function(field, Integer.class, timestamp));
+        }
+        List<Selection<?>> selections = new ArrayList<>(buckets);
+        selections.add(builder.count(root));
+        ParameterExpression<ZonedDateTime> fromParameter = builder.parameter(ZonedDateTime.class);
+        ParameterExpression<ZonedDateTime> toParameter = builder.parameter(ZonedDateTime.class);
+        query.multiselect(selections)
+            .where(builder.greaterThanOrEqualTo(timestamp, fromParameter), builder.lessThan(timestamp, toParameter))
+            .groupBy(buckets);
+        return entityManager.createQuery(query)
+            .setParameter(fromParameter, from)
+            .setParameter(toParameter, to)
+            .getResultList();
+    }
+}
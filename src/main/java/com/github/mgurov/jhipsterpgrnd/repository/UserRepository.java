@@ -3,8 +3,13 @@ package com.github.mgurov.jhipsterpgrnd.repository;
 import com.github.mgurov.jhipsterpgrnd.domain.User;
 
 import java.time.ZonedDateTime;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -25,6 +30,21 @@ public interface UserRepository extends JpaRepository<User, Long> {
 
     Optional<User> findOneById(Long userId);
 
+    /**
+     * @return the ids of a slice of the users, to be loaded with {@link #findAllWithAuthoritiesByIdIn(Collection)}
+     */
+    @Query("select user.id from User user")
+    Slice<Long> findIdSlice(Pageable pageable);
+
+    /**
+     * @return the users of the given ids with their authorities, in no particular order
+     */
+    @Query("select distinct user from User user left join fetch user.authorities where user.id in :ids")
+    List<User> findAllWithAuthoritiesByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("select user.id, authority.name from User user join user.authorities authority where user.id in :ids")
+    List<Object[]> findAuthorityNamesByIdIn(@Param("ids") Collection<?> ids);
+
     @Override
     void delete(User t);
 
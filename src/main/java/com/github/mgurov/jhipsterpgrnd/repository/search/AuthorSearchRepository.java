@@ -0,0 +1,112 @@
+package com.github.mgurov.jhipsterpgrnd.repository.search;
+
+import com.carrotsearch.hppc.LongHashSet;
+import com.github.mgurov.jhipsterpgrnd.domain.Author;
+
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * In-memory full-text search index of the Author descriptions.
+ *
+ * <p>
+ * Changes are applied once the current transaction, if any, is committed, so that rolled back changes are never
+ * searchable. While the index is rebuilt, the ids of the deleted authors are kept as tombstones, for the rebuild
+ * not to index again an author it read before its deletion.
+ * </p>
+ */
+@Repository
+public class AuthorSearchRepository {
+
+    private final InvertedIndex index = new InvertedIndex();
+
+    /**
+     * The ids of the authors deleted since the rebuild started, null when not rebuilding.
+     */
+    private LongHashSet tombstones;
+
+    /**
+     * Index an author, replacing its previous description.
+     *
+     * @param author the entity to index
+     */
+    public void save(Author author) {
+        long id = author.getId();
+        String description = author.getDescription();
+        afterCommit(() -> index.put(id, description));
+    }
+
+    /**
+     * Start recording the deleted authors, for {@link #saveIfAbsent(long, String)} to skip them.
+     */
+    public synchronized void startRebuild() {
+        tombstones = new LongHashSet();
+    }
+
+    /**
+     * Stop recording the deleted authors.
+     */
+    public synchronized void finishRebuild() {
+        tombstones = null;
+    }
+
+    /**
+     * Index the description of an author read from the database, unless the author was indexed or deleted since
+     * the rebuild started.
+     *
+     * @param id the id of the entity
+     * @param description the description of the entity
+     */
+    public synchronized void saveIfAbsent(long id, String description) {
+        if (tombstones == null || !tombstones.contains(id)) {
+            index.putIfAbsent(id, description);
+        }
+    }
+
+    /**
+     * Remove an author from the index.
+     *
+     * @param id the id of the entity
+     */
+    public void delete(Long id) {
+        afterCommit(() -> remove(id));
+    }
+
+    private synchronized void remove(long id) {
+        if (tombstones != null) {
+            tombstones.add(id);
+        }
+        index.remove(id);
+    }
+
+    /**
+     * @return the number of indexed authors
+     */
+    public int count() {
+        return index.size();
+    }
+
+    /**
+     * Search the authors whose description contains any of the words of a query.
+     *
+     * @param query the query
+     * @return the ids of the matching authors, the most relevant first
+     */
+    public long[] search(String query) {
+        return index.search(query);
+    }
+
+    private void afterCommit(Runnable change) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+                @Override
+                public void afterCommit() {
+                    change.run();
+                }
+            });
+        } else {
+            change.run();
+        }
+    }
+}
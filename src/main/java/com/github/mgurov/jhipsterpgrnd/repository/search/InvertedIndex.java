@@ -0,0 +1,309 @@
+package com.github.mgurov.jhipsterpgrnd.repository.search;
+
+import com.carrotsearch.hppc.LongObjectHashMap;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * A thread-safe, in-memory inverted index of texts identified by a document id.
+ *
+ * <p>
+ * Texts are split into lower-cased tokens of letters and digits. The postings list of each token holds the ids of
+ * the documents containing it, sorted, along with the frequency of the token in each document, in primitive arrays.
+ * The tokens of each document are kept by a primitive map, to remove the document, and the document ids are never
+ * boxed.
+ * </p>
+ * <p>
+ * Searches return the documents containing any of the query tokens, ranked by TF-IDF.
+ * </p>
+ */
+public class InvertedIndex {
+
+    private static final long[] NO_DOCUMENTS = new long[0];
+
+    private static final double[] NO_SCORES = new double[0];
+
+    private final Map<String, Postings> postingsByToken = new HashMap<>();
+
+    private final LongObjectHashMap<String[]> tokensByDocument = new LongObjectHashMap<>();
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Index a document, replacing its previous text if any.
+     *
+     * @param document the id of the document
+     * @param text the text of the document, may be null
+     */
+    public void put(long document, String text) {
+        Terms terms = new Terms(tokenize(text));
+        lock.writeLock().lock();
+        try {
+            removeDocument(document);
+            addDocument(document, terms);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Index a document, unless it is already indexed.
+     *
+     * @param document the id of the document
+     * @param text the text of the document, may be null
+     */
+    public void putIfAbsent(long document, String text) {
+        Terms terms = new Terms(tokenize(text));
+        lock.writeLock().lock();
+        try {
+            if (!tokensByDocument.containsKey(document)) {
+                addDocument(document, terms);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Remove a document from the index.
+     *
+     * @param document the id of the document
+     */
+    public void remove(long document) {
+        lock.writeLock().lock();
+        try {
+            removeDocument(document);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Remove all the documents from the index.
+     */
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            postingsByToken.clear();
+            tokensByDocument.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @return the number of indexed documents
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return tokensByDocument.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Search the documents containing any of the tokens of a query.
+     *
+     * @param query the query
+     * @return the ids of the matching documents, the most relevant first
+     */
+    public long[] search(String query) {
+        String[] tokens = new Terms(tokenize(query)).tokens;
+        long[] documents = NO_DOCUMENTS;
+        double[] scores = NO_SCORES;
+        int size = 0;
+        lock.readLock().lock();
+        try {
+            int documentCount = tokensByDocument.size();
+            for (String token : tokens) {
+                Postings postings = postingsByToken.get(token);
+                if (postings == null) {
+                    continue;
+                }
+                double idf = Math.log(1 + (double) documentCount / postings.size);
+                long[] mergedDocuments = new long[size + postings.size];
+                double[] mergedScores = new double[size + postings.size];
+                int merged = 0;
+                int i = 0;
+                int j = 0;
+                while (i < size || j < postings.size) {
+                    if (j == postings.size || (i < size && documents[i] < postings.documents[j])) {
+                        mergedDocuments[merged] = documents[i];
+                        mergedScores[merged++] = scores[i++];
+                    } else {
+                        double score = (1 + Math.log(postings.frequencies[j])) * idf;
+                        if (i < size && documents[i] == postings.documents[j]) {
+                            score += scores[i++];
+                        }
+                        mergedDocuments[merged] = postings.documents[j++];
+                        mergedScores[merged++] = score;
+                    }
+                }
+                documents = mergedDocuments;
+                scores = mergedScores;
+                size = merged;
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        int[] ranking = rank(scores, size);
+        long[] matches = new long[size];
+        for (int i = 0; i < size; i++) {
+            matches[i] = documents[ranking[i]];
+        }
+        return matches;
+    }
+
+    /**
+     * Sort the indices of the scores by decreasing score, by a stable merge sort: the indices of equal scores stay
+     * sorted, like the ids of their documents.
+     *
+     * @param scores the scores
+     * @param size the number of scores
+     * @return the indices of the scores, the highest score first
+     */
+    private static int[] rank(double[] scores, int size) {
+        int[] ranking = new int[size];
+        for (int i = 0; i < size; i++) {
+            ranking[i] = i;
+        }
+        int[] merged = new int[size];
+        for (int width = 1; width < size; width *= 2) {
+            for (int from = 0; from < size; from += 2 * width) {
+                int middle = Math.min(from + width, size);
+                int to = Math.min(from + 2 * width, size);
+                int i = from;
+                int j = middle;
+                int k = from;
+                while (i < middle || j < to) {
+                    if (j == to || (i < middle && scores[ranking[i]] >= scores[ranking[j]])) {
+                        merged[k++] = ranking[i++];
+                    } else {
+                        merged[k++] = ranking[j++];
+                    }
+                }
+            }
+            int[] sorted = merged;
+            merged = ranking;
+            ranking = sorted;
+        }
+        return ranking;
+    }
+
+    /**
+     * Split a text into lower-cased tokens of letters and digits.
+     *
+     * @param text the text to split, may be null
+     * @return the tokens, in the order of the text
+     */
+    public static String[] tokenize(String text) {
+        if (text == null) {
+            return new String[0];
+        }
+        List<String> tokens = new ArrayList<>();
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean tokenChar = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (tokenChar && start < 0) {
+                start = i;
+            } else if (!tokenChar && start >= 0) {
+                tokens.add(text.substring(start, i).toLowerCase(Locale.ROOT));
+                start = -1;
+            }
+        }
+        return tokens.toArray(new String[tokens.size()]);
+    }
+
+    private void addDocument(long document, Terms terms) {
+        for (int i = 0; i < terms.tokens.length; i++) {
+            postingsByToken.computeIfAbsent(terms.tokens[i], token -> new Postings()).put(document, terms.frequencies[i]);
+        }
+        tokensByDocument.put(document, terms.tokens);
+    }
+
+    private void removeDocument(long document) {
+        String[] tokens = tokensByDocument.remove(document);
+        if (tokens == null) {
+            return;
+        }
+        for (String token : tokens) {
+            Postings postings = postingsByToken.get(token);
+            postings.remove(document);
+            if (postings.size == 0) {
+                postingsByToken.remove(token);
+            }
+        }
+    }
+
+    /**
+     * The distinct tokens of a text, sorted, with their frequency.
+     */
+    private static final class Terms {
+
+        private final String[] tokens;
+
+        private final int[] frequencies;
+
+        Terms(String[] allTokens) {
+            String[] sorted = allTokens.clone();
+            Arrays.sort(sorted);
+            String[] distinct = new String[sorted.length];
+            int[] counts = new int[sorted.length];
+            int size = 0;
+            for (String token : sorted) {
+                if (size > 0 && distinct[size - 1].equals(token)) {
+                    counts[size - 1]++;
+                } else {
+                    distinct[size] = token;
+                    counts[size++] = 1;
+                }
+            }
+            this.tokens = Arrays.copyOf(distinct, size);
+            this.frequencies = Arrays.copyOf(counts, size);
+        }
+    }
+
+    /**
+     * The documents containing a token, sorted by id, with the frequency of the token in each of them.
+     */
+    private static final class Postings {
+
+        private long[] documents = new long[4];
+
+        private int[] frequencies = new int[4];
+
+        private int size;
+
+        void put(long document, int frequency) {
+            int index = Arrays.binarySearch(documents, 0, size, document);
+            if (index >= 0) {
+                frequencies[index] = frequency;
+                return;
+            }
+            index = -index - 1;
+            if (size == documents.length) {
+                documents = Arrays.copyOf(documents, size * 2);
+                frequencies = Arrays.copyOf(frequencies, size * 2);
+            }
+            System.arraycopy(documents, index, documents, index + 1, size - index);
+            System.arraycopy(frequencies, index, frequencies, index + 1, size - index);
+            documents[index] = document;
+            frequencies[index] = frequency;
+            size++;
+        }
+
+        void remove(long document) {
+            int index = Arrays.binarySearch(documents, 0, size, document);
+            if (index < 0) {
+                return;
+            }
+            System.arraycopy(documents, index + 1, documents, index, size - index - 1);
+            System.arraycopy(frequencies, index + 1, frequencies, index, size - index - 1);
+            size--;
+        }
+    }
+}
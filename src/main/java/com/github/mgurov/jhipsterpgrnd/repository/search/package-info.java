@@ -0,0 +1,4 @@
+/**
+ * In-memory search indexes.
+ */
+package com.github.mgurov.jhipsterpgrnd.repository.search;
@@ -1,15 +1,21 @@
 package com.github.mgurov.jhipsterpgrnd.service;
 
 import com.github.mgurov.jhipsterpgrnd.config.audit.AuditEventConverter;
+import com.github.mgurov.jhipsterpgrnd.domain.PersistentAuditEvent;
 import com.github.mgurov.jhipsterpgrnd.repository.PersistenceAuditEventRepository;
+import com.github.mgurov.jhipsterpgrnd.repository.TableStatisticsRepository;
+import com.github.mgurov.jhipsterpgrnd.service.util.CountCache;
+import com.github.mgurov.jhipsterpgrnd.service.util.CountMode;
+import com.github.mgurov.jhipsterpgrnd.service.util.SliceUtil;
 import java.time.LocalDateTime;
 import org.springframework.boot.actuate.audit.AuditEvent;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import javax.inject.Inject;
+import java.util.Arrays;
 import java.util.Optional;
 
 /**
@@ -22,27 +28,83 @@ import java.util.Optional;
 @Transactional
 public class AuditEventService {
 
+    /**
+     * Maximum age of the cached audit event counts. The audit events are written for every authentication,
+     * so the counts are not invalidated by the writes but only kept this long.
+     */
+    private static final long COUNT_MAX_AGE_MILLIS = 10_000;
+
+    /**
+     * Maximum number of cached counts, one per date range.
+     */
+    private static final int COUNT_MAX_FILTERS = 100;
+
     private PersistenceAuditEventRepository persistenceAuditEventRepository;
 
     private AuditEventConverter auditEventConverter;
 
+    private TableStatisticsRepository tableStatisticsRepository;
+
+    private final CountCache countCache = new CountCache(COUNT_MAX_AGE_MILLIS, COUNT_MAX_FILTERS);
+
     @Inject
     public AuditEventService(
         PersistenceAuditEventRepository persistenceAuditEventRepository,
-        AuditEventConverter auditEventConverter) {
+        AuditEventConverter auditEventConverter,
+        TableStatisticsRepository tableStatisticsRepository) {
 
         this.persistenceAuditEventRepository = persistenceAuditEventRepository;
         this.auditEventConverter = auditEventConverter;
+        this.tableStatisticsRepository = tableStatisticsRepository;
     }
 
-    public Page<AuditEvent> findAll(Pageable pageable) {
-        return persistenceAuditEventRepository.findAll(pageable)
-            .map(persistentAuditEvents -> auditEventConverter.convertToAuditEvent(persistentAuditEvents));
+    /**
+     * Get all the audit events.
+     * <p>
+     * The ids of the slice are read first, then the events of these ids with their data, see
+     * {@link SliceUtil#loadByIds}.
+     * </p>
+     *
+     * @param pageable the pagination information
+     * @param countMode how to count the events
+     * @return the events, a page unless they are not counted
+     */
+    public Slice<AuditEvent> findAll(Pageable pageable, CountMode countMode) {
+        Slice<PersistentAuditEvent> events = findAllWithData(persistenceAuditEventRepository.findIdSlice(pageable), pageable);
+        if (countMode == CountMode.ESTIMATED) {
+            events = countCache.page(events, pageable, countMode, () -> tableStatisticsRepository
+                .estimateRowCount("jhi_persistent_audit_event").orElseGet(persistenceAuditEventRepository::count));
+        } else if (countMode == CountMode.EXACT) {
+            events = countCache.page(events, pageable, countMode, persistenceAuditEventRepository::count);
+        }
+        return events.map(persistentAuditEvents -> auditEventConverter.convertToAuditEvent(persistentAuditEvents));
+    }
+
+    /**
+     * Get the audit events of a date range, loaded like {@link #findAll(Pageable, CountMode)}.
+     *
+     * @param fromDate the start of the date range
+     * @param toDate the end of the date range
+     * @param pageable the pagination information
+     * @param countMode how to count the events
+     * @return the events, a page unless they are not counted
+     */
+    public Slice<AuditEvent> findByDates(LocalDateTime fromDate, LocalDateTime toDate, Pageable pageable,
+        CountMode countMode) {
+
+        Slice<PersistentAuditEvent> events = findAllWithData(
+            persistenceAuditEventRepository.findIdSliceByAuditEventDateBetween(fromDate, toDate, pageable), pageable);
+        if (countMode != CountMode.NONE) {
+            // there are no statistics to estimate a date range from, so it is always counted
+            events = countCache.page(events, pageable, Arrays.asList(fromDate, toDate),
+                () -> persistenceAuditEventRepository.countByAuditEventDateBetween(fromDate, toDate));
+        }
+        return events.map(persistentAuditEvents -> auditEventConverter.convertToAuditEvent(persistentAuditEvents));
     }
 
-    public Page<AuditEvent> findByDates(LocalDateTime fromDate, LocalDateTime toDate, Pageable pageable) {
-        return persistenceAuditEventRepository.findAllByAuditEventDateBetween(fromDate, toDate, pageable)
-            .map(persistentAuditEvents -> auditEventConverter.convertToAuditEvent(persistentAuditEvents));
+    private Slice<PersistentAuditEvent> findAllWithData(Slice<Long> ids, Pageable pageable) {
+        return SliceUtil.loadByIds(ids, pageable, persistenceAuditEventRepository::findAllWithDataByIdIn,
+            PersistentAuditEvent::getId);
     }
 
     public Optional<AuditEvent> find(Long id) {
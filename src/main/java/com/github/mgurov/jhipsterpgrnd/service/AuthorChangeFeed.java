@@ -0,0 +1,207 @@
+package com.github.mgurov.jhipsterpgrnd.service;
+
+import com.github.mgurov.jhipsterpgrnd.service.util.BroadcastBuffer;
+import com.github.mgurov.jhipsterpgrnd.web.rest.dto.AuthorChangeDTO;
+import com.github.mgurov.jhipsterpgrnd.web.rest.dto.AuthorDTO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.inject.Inject;
+import java.io.IOException;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Feed of the changes of the authors, for the clients which would otherwise poll them.
+ *
+ * <p>
+ * The changes are published once their transaction is committed, numbered by sequence, into a bounded buffer of
+ * the last changes. Each subscriber is sent the changes following the last one it got, by the task executor, so
+ * that a slow subscriber neither delays the writes nor the other subscribers. At most one send is scheduled per
+ * subscriber at a time, sending all the changes buffered when it runs. A subscriber reconnecting with the
+ * sequence number of the last change it got is sent the changes it missed, as long as they are still buffered;
+ * otherwise it is told to reload the authors.
+ * </p>
+ */
+@Service
+public class AuthorChangeFeed {
+
+    /**
+     * Number of the last changes kept for replay.
+     */
+    private static final int BUFFER_CAPACITY = 1024;
+
+    /**
+     * Number of changes sent to a subscriber at once.
+     */
+    private static final int SEND_BATCH_SIZE = 100;
+
+    private final Logger log = LoggerFactory.getLogger(AuthorChangeFeed.class);
+
+    private final BroadcastBuffer<AuthorChangeDTO> buffer = new BroadcastBuffer<>(BUFFER_CAPACITY);
+
+    private final Set<Subscription> subscriptions = ConcurrentHashMap.newKeySet();
+
+    @Inject
+    @Qualifier("taskExecutor")
+    private TaskExecutor taskExecutor;
+
+    /**
+     * Publish a change of an author, once the current transaction, if any, is committed.
+     *
+     * @param type the type of the change
+     * @param id the id of the author
+     * @param author the author after the change, or null if it was deleted
+     */
+    public void publish(AuthorChangeDTO.Type type, Long id, AuthorDTO author) {
+        AuthorChangeDTO change = new AuthorChangeDTO(type, id, author);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+                @Override
+                public void afterCommit() {
+                    publish(change);
+                }
+            });
+        } else {
+            publish(change);
+        }
+    }
+
+    private void publish(AuthorChangeDTO change) {
+        buffer.publish(change);
+        for (Subscription subscription : subscriptions) {
+            if (!subscription.scheduled.compareAndSet(false, true)) {
+                // The drain already scheduled sends this change as well
+                continue;
+            }
+            try {
+                taskExecutor.execute(subscription::drainScheduled);
+            } catch (TaskRejectedException e) {
+                subscription.scheduled.set(false);
+                log.warn("Could not send the Author changes to a subscriber, it will get them with the next change: {}",
+                    e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * @return the sequence number of the last change, 0 if none
+     */
+    public long getSequence() {
+        return buffer.getSequence();
+    }
+
+    /**
+     * Subscribe to the changes of the authors.
+     * <p>
+     * The missed changes, if any, are sent to the subscriber by the calling thread before this method returns.
+     * </p>
+     *
+     * @param after the sequence number of the last change the subscriber got, or null to get the next changes only
+     * @param subscriber the subscriber
+     * @return the subscription, to cancel once the subscriber is gone
+     */
+    public Subscription subscribe(Long after, Subscriber subscriber) {
+        Subscription subscription = new Subscription(after != null ? after : buffer.getSequence(), subscriber);
+        subscriptions.add(subscription);
+        subscription.drain();
+        return subscription;
+    }
+
+    /**
+     * A subscriber to the changes of the authors.
+     */
+    public interface Subscriber {
+
+        /**
+         * Receive a change.
+         *
+         * @param sequence the sequence number of the change
+         * @param change the change
+         * @throws IOException if the change couldnt be sent to the client, which cancels the subscription
+         */
+        void onChange(long sequence, AuthorChangeDTO change) throws IOException;
+
+        /**
+         * Receive a reset: some changes following the last one received are no longer known.
+         *
+         * @param sequence the sequence number of the last change, the next changes follow it
+         * @throws IOException if the reset couldnt be sent to the client, which cancels the subscription
+         */
+        void onReset(long sequence) throws IOException;
+    }
+
+    /**
+     * The subscription of a subscriber, sending it the changes by one thread at a time.
+     */
+    public final class Subscription {
+
+        private final Subscriber subscriber;
+
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+
+        private final AtomicInteger pendingDrains = new AtomicInteger();
+
+        private long sequence;
+
+        private Subscription(long sequence, Subscriber subscriber) {
+            this.sequence = sequence;
+            this.subscriber = subscriber;
+        }
+
+        /**
+         * Stop sending the changes to the subscriber.
+         */
+        public void cancel() {
+            subscriptions.remove(this);
+        }
+
+        private void drainScheduled() {
+            // Cleared before reading the buffer, for the changes published from now on to schedule another drain
+            scheduled.set(false);
+            drain();
+        }
+
+        private void drain() {
+            if (pendingDrains.getAndIncrement() != 0) {
+                return;
+            }
+            int missed = 1;
+            do {
+                send();
+                missed = pendingDrains.addAndGet(-missed);
+            } while (missed != 0);
+        }
+
+        private void send() {
+            try {
+                while (subscriptions.contains(this)) {
+                    List<BroadcastBuffer.Entry<AuthorChangeDTO>> changes = buffer.readAfter(sequence, SEND_BATCH_SIZE);
+                    if (changes == null) {
+                        sequence = buffer.getSequence();
+                        subscriber.onReset(sequence);
+                    } else if (changes.isEmpty()) {
+                        return;
+                    } else {
+                        for (BroadcastBuffer.Entry<AuthorChangeDTO> change : changes) {
+                            subscriber.onChange(change.getSequence(), change.getValue());
+                            sequence = change.getSequence();
+                        }
+                    }
+                }
+            } catch (IOException | RuntimeException e) {
+                log.debug("Could not send the Author changes to a subscriber, unsubscribing it: {}", e.getMessage());
+                cancel();
+            }
+        }
+    }
+}
@@ -1,20 +1,65 @@
 package com.github.mgurov.jhipsterpgrnd.service;
 
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+import com.github.mgurov.jhipsterpgrnd.config.JHipsterProperties;
+import com.github.mgurov.jhipsterpgrnd.config.datasource.ReplicaRoutingDataSource;
+import com.github.mgurov.jhipsterpgrnd.domain.ArchivedAuthor;
 import com.github.mgurov.jhipsterpgrnd.domain.Author;
+import com.github.mgurov.jhipsterpgrnd.repository.ArchivedAuthorRepository;
 import com.github.mgurov.jhipsterpgrnd.repository.AuthorRepository;
+import com.github.mgurov.jhipsterpgrnd.repository.FieldProjectionRepository;
+import com.github.mgurov.jhipsterpgrnd.repository.TableStatisticsRepository;
+import com.github.mgurov.jhipsterpgrnd.repository.search.AuthorSearchRepository;
+import com.github.mgurov.jhipsterpgrnd.service.util.CountCache;
+import com.github.mgurov.jhipsterpgrnd.service.util.CountMode;
+import com.github.mgurov.jhipsterpgrnd.web.rest.dto.AuthorBulkResultDTO;
+import com.github.mgurov.jhipsterpgrnd.web.rest.dto.AuthorChangeDTO;
 import com.github.mgurov.jhipsterpgrnd.web.rest.dto.AuthorDTO;
 import com.github.mgurov.jhipsterpgrnd.web.rest.mapper.AuthorMapper;
+import org.hibernate.CacheMode;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.stereotype.Service;
 
+import javax.annotation.PostConstruct;
 import javax.inject.Inject;
-import java.util.LinkedList;
-import java.util.List;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.PersistenceException;
+import java.time.ZonedDateTime;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.LongStream;
 
 /**
  * Service Implementation for managing Author.
@@ -23,6 +68,41 @@ import java.util.stream.Collectors;
 @Transactional
 public class AuthorService {
 
+    /**
+     * Fields of the authors which can be read on their own, see {@link #findAll(Pageable, CountMode, List)}.
+     */
+    public static final Set<String> FIELDS =
+        Collections.unmodifiableSet(new LinkedHashSet<>(Arrays.asList("id", "description", "timestamp", "version")));
+
+    /**
+     * Number of authors saved per transaction by a bulk save or an import, a multiple of the JDBC batch size.
+     */
+    private static final int BULK_CHUNK_SIZE = 500;
+
+    /**
+     * Number of ids read per transaction when rebuilding the search index, the ranges being read in parallel.
+     */
+    private static final long SEARCH_INDEX_REBUILD_RANGE = 5000;
+
+    /**
+     * Number of threads reading the id ranges when rebuilding the search index, each of them using a connection.
+     */
+    private static final int SEARCH_INDEX_REBUILD_THREADS = 4;
+
+    private static final String IMPORT_ROWS_METRIC = MetricRegistry.name(AuthorService.class, "import", "rows");
+
+    private static final String IMPORT_CHUNKS_METRIC = MetricRegistry.name(AuthorService.class, "import", "chunks");
+
+    /**
+     * Number of authors fetched per round trip by an export, and kept in the persistence context at most.
+     */
+    private static final int EXPORT_FETCH_SIZE = 1000;
+
+    /**
+     * Maximum age of the cached counts, which are invalidated by the writes of this service anyway.
+     */
+    private static final long COUNT_MAX_AGE_MILLIS = 60_000;
+
     private final Logger log = LoggerFactory.getLogger(AuthorService.class);
     
     @Inject
@@ -30,32 +110,379 @@ public class AuthorService {
     
     @Inject
     private AuthorMapper authorMapper;
+
+    @Inject
+    private AuthorSearchRepository authorSearchRepository;
+
+    @Inject
+    private PlatformTransactionManager transactionManager;
+
+    @Inject
+    private MetricRegistry metricRegistry;
+
+    @Inject
+    private TableStatisticsRepository tableStatisticsRepository;
+
+    @Inject
+    private FieldProjectionRepository fieldProjectionRepository;
+
+    @Inject
+    private AuthorChangeFeed authorChangeFeed;
+
+    @Inject
+    private AuthorStatsService authorStatsService;
+
+    @Inject
+    private ArchivedAuthorRepository archivedAuthorRepository;
+
+    @Inject
+    private JHipsterProperties jHipsterProperties;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private TransactionTemplate transactionTemplate;
+
+    private final CountCache countCache = new CountCache(COUNT_MAX_AGE_MILLIS, CountMode.values().length);
+
+    @PostConstruct
+    public void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
     
     /**
      * Save a author.
-     * 
+     * <p>
+     * An author with a version is only updated if it is still at this version, otherwise a
+     * {@link org.springframework.dao.ConcurrencyFailureException} is thrown. An author without a version
+     * overwrites the current one. The change is published to the {@link AuthorChangeFeed} once committed.
+     * </p>
+     *
      * @param authorDTO the entity to save
-     * @return the persisted entity
+     * @return the persisted entity, or null if the author to update does not exist
      */
     public AuthorDTO save(AuthorDTO authorDTO) {
+        return save(authorDTO, null);
+    }
+
+    /**
+     * Update an author if its current state matches a precondition, like {@link #save(AuthorDTO)}.
+     * <p>
+     * The current state is read by the transaction of the update, so from the primary database, and the author is
+     * updated at its current version.
+     * </p>
+     *
+     * @param authorDTO the entity to update
+     * @param precondition the precondition on the current author, null if it does not exist
+     * @return the persisted entity
+     * @throws OptimisticLockingFailureException if the current author does not match the precondition
+     */
+    public AuthorDTO save(AuthorDTO authorDTO, Predicate<AuthorDTO> precondition) {
         log.debug("Request to save Author : {}", authorDTO);
         Author author = authorMapper.authorDTOToAuthor(authorDTO);
-        author = authorRepository.save(author);
+        if (author.getId() == null) {
+            author.setVersion(null);
+        } else {
+            Author current = authorRepository.findOne(author.getId());
+            if (precondition != null && !precondition.test(authorMapper.authorToAuthorDTO(current))) {
+                throw new OptimisticLockingFailureException("Author " + author.getId() + " does not match the precondition");
+            }
+            if (current == null) {
+                return null;
+            }
+            if (precondition != null || author.getVersion() == null) {
+                author.setVersion(current.getVersion());
+            }
+            authorStatsService.invalidate(current.getTimestamp());
+        }
+        author = authorRepository.saveAndFlush(author);
+        authorStatsService.invalidate(author.getTimestamp());
+        authorSearchRepository.save(author);
+        if (authorDTO.getId() == null) {
+            countCache.invalidate();
+        }
         AuthorDTO result = authorMapper.authorToAuthorDTO(author);
+        authorChangeFeed.publish(authorDTO.getId() == null ? AuthorChangeDTO.Type.CREATED : AuthorChangeDTO.Type.UPDATED,
+            result.getId(), result);
         return result;
     }
 
+    /**
+     * Save authors in bulk.
+     * <p>
+     * Authors without an id are created, the others are updated. The authors are saved in chunks, each chunk in its
+     * own transaction so that the inserts and updates are sent to the database in JDBC batches. A failing chunk is
+     * rolled back on its own and does not prevent the following chunks from being saved. Authors with a version
+     * which is not the current one are reported as conflicts and left unchanged. The changes of each chunk are
+     * published to the change feed once the chunk is committed.
+     * </p>
+     *
+     * @param authorDTOs the entities to save
+     * @return the result of each entity, in the order of the given entities
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public List<AuthorBulkResultDTO> saveAll(List<AuthorDTO> authorDTOs) {
+        log.debug("Request to save {} Authors in bulk", authorDTOs.size());
+        List<AuthorBulkResultDTO> results = new ArrayList<>(authorDTOs.size());
+        for (int offset = 0; offset < authorDTOs.size(); offset += BULK_CHUNK_SIZE) {
+            int chunkOffset = offset;
+            List<AuthorDTO> chunk = authorDTOs.subList(offset, Math.min(offset + BULK_CHUNK_SIZE, authorDTOs.size()));
+            try {
+                results.addAll(transactionTemplate.execute(status -> saveChunk(chunk, chunkOffset)));
+            } catch (DataAccessException | PersistenceException | TransactionException e) {
+                log.warn("Could not save the Authors {} to {} in bulk: {}", offset, offset + chunk.size() - 1, e.getMessage());
+                for (int i = 0; i < chunk.size(); i++) {
+                    results.add(new AuthorBulkResultDTO(offset + i, chunk.get(i).getId(),
+                        HttpStatus.INTERNAL_SERVER_ERROR.value(), e.getMessage()));
+                }
+            }
+        }
+        countCache.invalidate();
+        return results;
+    }
+
+    /**
+     * Import new authors.
+     * <p>
+     * The authors are consumed and persisted as they come, the persistence context being flushed and cleared
+     * every chunk, each chunk in its own transaction, so that the memory used does not depend on the number of
+     * authors. The import stops at the first author the iterator fails to provide: the authors of the previous
+     * chunks stay imported. The authors of each chunk are published to the change feed once the chunk is committed.
+     * </p>
+     * <p>
+     * The imported rows are counted by the "import.rows" meter and the chunk transactions are timed by the
+     * "import.chunks" timer of this service.
+     * </p>
+     *
+     * @param authors the entities to import, their ids are ignored
+     * @return the number of imported entities
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public long importAll(Iterator<Author> authors) {
+        log.debug("Request to import Authors");
+        Meter rows = metricRegistry.meter(IMPORT_ROWS_METRIC);
+        Timer chunks = metricRegistry.timer(IMPORT_CHUNKS_METRIC);
+        long imported = 0;
+        try {
+            while (authors.hasNext()) {
+                int chunkSize;
+                Timer.Context context = chunks.time();
+                try {
+                    chunkSize = transactionTemplate.execute(status -> importChunk(authors));
+                } finally {
+                    context.stop();
+                }
+                rows.mark(chunkSize);
+                imported += chunkSize;
+                log.debug("Imported {} Authors", imported);
+            }
+        } finally {
+            countCache.invalidate();
+        }
+        log.info("Imported {} Authors", imported);
+        return imported;
+    }
+
+    private int importChunk(Iterator<Author> authors) {
+        List<Author> chunk = new ArrayList<>(BULK_CHUNK_SIZE);
+        while (chunk.size() < BULK_CHUNK_SIZE && authors.hasNext()) {
+            Author author = authors.next();
+            author.setId(null);
+            author.setVersion(null);
+            entityManager.persist(author);
+            authorSearchRepository.save(author);
+            authorStatsService.invalidate(author.getTimestamp());
+            chunk.add(author);
+        }
+        entityManager.flush();
+        for (Author author : chunk) {
+            authorChangeFeed.publish(AuthorChangeDTO.Type.CREATED, author.getId(), authorMapper.authorToAuthorDTO(author));
+        }
+        entityManager.clear();
+        return chunk.size();
+    }
+
+    private List<AuthorBulkResultDTO> saveChunk(List<AuthorDTO> chunk, int offset) {
+        Set<Long> ids = chunk.stream()
+            .map(AuthorDTO::getId)
+            .filter(Objects::nonNull)
+            .collect(Collectors.toSet());
+        Map<Long, Author> existingAuthors = ids.isEmpty() ? Collections.emptyMap() : authorRepository.findAll(ids).stream()
+            .collect(Collectors.toMap(Author::getId, Function.identity()));
+
+        List<Author> authors = new ArrayList<>(chunk.size());
+        boolean[] conflicts = new boolean[chunk.size()];
+        for (int i = 0; i < chunk.size(); i++) {
+            AuthorDTO authorDTO = chunk.get(i);
+            Author author;
+            if (authorDTO.getId() == null) {
+                author = authorMapper.authorDTOToAuthor(authorDTO);
+                author.setVersion(null);
+                entityManager.persist(author);
+                authorStatsService.invalidate(author.getTimestamp());
+            } else {
+                author = existingAuthors.get(authorDTO.getId());
+                if (author != null && authorDTO.getVersion() != null && !authorDTO.getVersion().equals(author.getVersion())) {
+                    conflicts[i] = true;
+                } else if (author != null) {
+                    authorStatsService.invalidate(author.getTimestamp(), authorDTO.getTimestamp());
+                    author.setDescription(authorDTO.getDescription());
+                    author.setTimestamp(authorDTO.getTimestamp());
+                }
+            }
+            if (author != null && !conflicts[i]) {
+                authorSearchRepository.save(author);
+            }
+            authors.add(author);
+        }
+        entityManager.flush();
+        for (int i = 0; i < chunk.size(); i++) {
+            Author author = authors.get(i);
+            if (author != null && !conflicts[i]) {
+                authorChangeFeed.publish(chunk.get(i).getId() == null ? AuthorChangeDTO.Type.CREATED : AuthorChangeDTO.Type.UPDATED,
+                    author.getId(), authorMapper.authorToAuthorDTO(author));
+            }
+        }
+        entityManager.clear();
+
+        List<AuthorBulkResultDTO> results = new ArrayList<>(chunk.size());
+        for (int i = 0; i < chunk.size(); i++) {
+            Author author = authors.get(i);
+            Long id = chunk.get(i).getId();
+            if (author == null) {
+                results.add(new AuthorBulkResultDTO(offset + i, id, HttpStatus.NOT_FOUND.value(), "Author not found"));
+            } else if (conflicts[i]) {
+                results.add(new AuthorBulkResultDTO(offset + i, id, HttpStatus.CONFLICT.value(),
+                    "Author modified concurrently, current version " + author.getVersion()));
+            } else if (id == null) {
+                results.add(new AuthorBulkResultDTO(offset + i, author.getId(), HttpStatus.CREATED.value(), null));
+            } else {
+                results.add(new AuthorBulkResultDTO(offset + i, id, HttpStatus.OK.value(), null));
+            }
+        }
+        return results;
+    }
+
     /**
      *  Get all the authors.
-     *  
+     *  <p>
+     *  The total count of the authors is cached until they are created or deleted, or estimated from the table
+     *  statistics, or not counted at all, depending on the count mode.
+     *  </p>
+     *
      *  @param pageable the pagination information
-     *  @return the list of entities
+     *  @param countMode how to count the authors
+     *  @return the list of entities, a page unless they are not counted
      */
     @Transactional(readOnly = true) 
-    public Page<Author> findAll(Pageable pageable) {
+    public Slice<Author> findAll(Pageable pageable, CountMode countMode) {
         log.debug("Request to get all Authors");
-        Page<Author> result = authorRepository.findAll(pageable); 
-        return result;
+        Slice<Author> result = authorRepository.findSlice(pageable);
+        return count(result, pageable, countMode);
+    }
+
+    /**
+     *  Get some fields of all the authors, without loading the authors.
+     *
+     *  @param pageable the pagination information
+     *  @param countMode how to count the authors
+     *  @param fields the fields to get, among {@link #FIELDS}
+     *  @return the values of the fields of each author, a page unless they are not counted
+     */
+    @Transactional(readOnly = true)
+    public Slice<Map<String, Object>> findAll(Pageable pageable, CountMode countMode, List<String> fields) {
+        log.debug("Request to get the fields {} of all Authors", fields);
+        Slice<Map<String, Object>> result = fieldProjectionRepository.findAll(Author.class, fields, pageable);
+        return count(result, pageable, countMode);
+    }
+
+    /**
+     * Count the authors of a slice, on the primary database as the count is cached until the next write.
+     */
+    private <T> Slice<T> count(Slice<T> slice, Pageable pageable, CountMode countMode) {
+        switch (countMode) {
+            case NONE:
+                return slice;
+            case ESTIMATED:
+                return countCache.page(slice, pageable, countMode,
+                    () -> ReplicaRoutingDataSource.readFromPrimary(transactionManager,
+                        () -> tableStatisticsRepository.estimateRowCount("author").orElseGet(authorRepository::count)));
+            default:
+                return countCache.page(slice, pageable, countMode,
+                    () -> ReplicaRoutingDataSource.readFromPrimary(transactionManager, authorRepository::count));
+        }
+    }
+
+    /**
+     *  Get the authors following the given id, ordered by id.
+     *  <p>
+     *  This seeks by primary key instead of using an offset, and does not count the authors.
+     *  </p>
+     *
+     *  @param id the id of the last author of the previous slice
+     *  @param size the number of authors to get
+     *  @return the slice of entities
+     */
+    @Transactional(readOnly = true)
+    public Slice<Author> findAllAfter(Long id, int size) {
+        log.debug("Request to get Authors after : {}", id);
+        return authorRepository.findByIdGreaterThan(id, new PageRequest(0, size, Sort.Direction.ASC, "id"));
+    }
+
+    /**
+     *  Get the authors of a time range, ordered by timestamp and id.
+     *  <p>
+     *  The authors following a given author are sought by (timestamp, id) instead of using an offset,
+     *  and the authors are not counted.
+     *  </p>
+     *
+     *  @param from the start of the time range, inclusive
+     *  @param to the end of the time range, exclusive
+     *  @param afterTimestamp the timestamp of the last author of the previous slice, or null to get the first slice
+     *  @param afterId the id of the last author of the previous slice, or null to get the first slice
+     *  @param size the number of authors to get
+     *  @return the slice of entities
+     */
+    @Transactional(readOnly = true)
+    public Slice<Author> findAllByTimestamp(ZonedDateTime from, ZonedDateTime to, ZonedDateTime afterTimestamp,
+        Long afterId, int size) {
+        log.debug("Request to get Authors from {} to {} after : {}, {}", from, to, afterTimestamp, afterId);
+        PageRequest pageRequest = new PageRequest(0, size, Sort.Direction.ASC, "timestamp", "id");
+        if (afterTimestamp == null || afterId == null) {
+            return authorRepository.findByTimestampGreaterThanEqualAndTimestampLessThan(from, to, pageRequest);
+        }
+        return authorRepository.findSliceAfter(afterTimestamp, afterId, to, pageRequest);
+    }
+
+    /**
+     *  Export all the authors, ordered by id.
+     *  <p>
+     *  The authors are read through a forward-only cursor and detached once consumed, so the memory used
+     *  does not depend on the number of authors.
+     *  </p>
+     *
+     *  @param consumer the consumer of each entity
+     */
+    @Transactional(readOnly = true)
+    public void exportAll(Consumer<Author> consumer) {
+        log.debug("Request to export all Authors");
+        Session session = entityManager.unwrap(Session.class);
+        ScrollableResults results = session.createQuery("select author from Author author order by author.id")
+            .setFetchSize(EXPORT_FETCH_SIZE)
+            .setReadOnly(true)
+            .setCacheMode(CacheMode.IGNORE)
+            .scroll(ScrollMode.FORWARD_ONLY);
+        try {
+            int count = 0;
+            while (results.next()) {
+                consumer.accept((Author) results.get(0));
+                if (++count % EXPORT_FETCH_SIZE == 0) {
+                    session.clear();
+                }
+            }
+        } finally {
+            results.close();
+        }
     }
 
     /**
@@ -72,13 +499,187 @@ public class AuthorService {
         return authorDTO;
     }
 
+    /**
+     *  Get one author by id, possibly an archived one.
+     *
+     *  @param id the id of the entity
+     *  @param includeArchive whether to look for the author in the archive when it is not in the author table
+     *  @return the entity
+     */
+    @Transactional(readOnly = true)
+    public AuthorDTO findOne(Long id, boolean includeArchive) {
+        AuthorDTO authorDTO = findOne(id);
+        if (authorDTO == null && includeArchive) {
+            log.debug("Request to get archived Author : {}", id);
+            authorDTO = authorMapper.archivedAuthorToAuthorDTO(archivedAuthorRepository.findOne(id));
+        }
+        return authorDTO;
+    }
+
+    /**
+     *  Get all the archived authors.
+     *
+     *  @param pageable the pagination information
+     *  @return the list of entities
+     */
+    @Transactional(readOnly = true)
+    public Page<ArchivedAuthor> findAllArchived(Pageable pageable) {
+        log.debug("Request to get all archived Authors");
+        return archivedAuthorRepository.findAll(pageable);
+    }
+
     /**
      *  Delete the  author by id.
+     *  <p>
+     *  The deletion is published to the {@link AuthorChangeFeed} once committed.
+     *  </p>
      *  
      *  @param id the id of the entity
      */
     public void delete(Long id) {
         log.debug("Request to delete Author : {}", id);
+        Author author = authorRepository.findOne(id);
+        if (author != null) {
+            authorStatsService.invalidate(author.getTimestamp());
+        }
         authorRepository.delete(id);
+        authorSearchRepository.delete(id);
+        countCache.invalidate();
+        authorChangeFeed.publish(AuthorChangeDTO.Type.DELETED, id, null);
+    }
+
+    /**
+     * Move the authors older than the maximum age to the archive, when the archival is enabled.
+     * <p>
+     * The authors are moved in batches, each batch in its own transaction, keeping their id and version. An author
+     * modified while being archived makes its batch fail and is archived on the next run. The archived authors are
+     * removed from the search index and published to the {@link AuthorChangeFeed} as archived.
+     * </p>
+     * <p>
+     * This is scheduled to get fired everyday, at 02:00 (am), unless configured otherwise.
+     * </p>
+     */
+    @Scheduled(cron = "${jhipster.archive.cron:0 0 2 * * ?}")
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void archiveOldAuthors() {
+        JHipsterProperties.Archive archive = jHipsterProperties.getArchive();
+        if (!archive.isEnabled()) {
+            return;
+        }
+        ZonedDateTime now = ZonedDateTime.now();
+        ZonedDateTime before = now.minusDays(archive.getMaxAgeDays());
+        PageRequest batch = new PageRequest(0, archive.getBatchSize(), Sort.Direction.ASC, "id");
+        long archived = 0;
+        try {
+            int batchSize;
+            do {
+                batchSize = transactionTemplate.execute(status -> archiveBatch(before, now, batch));
+                archived += batchSize;
+            } while (batchSize == batch.getPageSize());
+        } catch (DataAccessException | PersistenceException | TransactionException e) {
+            log.warn("Could not archive the Authors older than {}, retrying on the next run: {}", before, e.getMessage());
+        } finally {
+            if (archived > 0) {
+                countCache.invalidate();
+            }
+        }
+        log.info("Archived {} Authors older than {}", archived, before);
+    }
+
+    private int archiveBatch(ZonedDateTime before, ZonedDateTime now, Pageable batch) {
+        List<Author> authors = authorRepository.findByTimestampBefore(before, batch);
+        for (Author author : authors) {
+            entityManager.persist(new ArchivedAuthor(author, now));
+        }
+        authorRepository.delete(authors);
+        entityManager.flush();
+        entityManager.clear();
+        for (Author author : authors) {
+            authorSearchRepository.delete(author.getId());
+            authorStatsService.invalidate(author.getTimestamp());
+            authorChangeFeed.publish(AuthorChangeDTO.Type.ARCHIVED, author.getId(), authorMapper.authorToAuthorDTO(author));
+        }
+        return authors.size();
+    }
+
+    /**
+     * Search the authors whose description contains any of the words of a query.
+     *
+     * @param query the query
+     * @param pageable the pagination information, the authors are ordered by relevance
+     * @return the list of entities
+     */
+    @Transactional(readOnly = true)
+    public Page<Author> search(String query, Pageable pageable) {
+        log.debug("Request to search for a page of Authors for query {}", query);
+        long[] ids = authorSearchRepository.search(query);
+        int from = Math.min(pageable.getOffset(), ids.length);
+        int to = Math.min(from + pageable.getPageSize(), ids.length);
+        List<Long> pageIds = LongStream.of(ids).skip(from).limit(to - from).boxed().collect(Collectors.toList());
+        Map<Long, Author> authors = pageIds.isEmpty() ? Collections.emptyMap() : authorRepository.findAll(pageIds).stream()
+            .collect(Collectors.toMap(Author::getId, Function.identity()));
+        List<Author> content = pageIds.stream()
+            .map(authors::get)
+            .filter(Objects::nonNull)
+            .collect(Collectors.toList());
+        // The authors of the page missing from the database are not counted, the ones of the other pages cannot be
+        return new PageImpl<>(content, pageable, ids.length - (pageIds.size() - content.size()));
+    }
+
+    /**
+     * Rebuild the search index from the database, once the application is started.
+     * <p>
+     * The id ranges of the authors are read and indexed in parallel, by threads of their own as the reads block on
+     * the database. Authors saved in the meantime are not overwritten by the rebuild, and authors deleted in the
+     * meantime are not indexed again. The ranges are read by read-write transactions, on the primary database, not to
+     * index authors deleted there but not yet on a replica.
+     * </p>
+     */
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void rebuildSearchIndex() {
+        log.debug("Request to rebuild the Author search index");
+        long start = System.currentTimeMillis();
+        authorSearchRepository.startRebuild();
+        try {
+            Long minId = transactionTemplate.execute(status -> authorRepository.findMinId());
+            Long maxId = transactionTemplate.execute(status -> authorRepository.findMaxId());
+            if (minId == null || maxId == null) {
+                return;
+            }
+            ExecutorService executor = Executors.newFixedThreadPool(SEARCH_INDEX_REBUILD_THREADS, runnable -> {
+                Thread thread = new Thread(runnable, "author-search-index-rebuild");
+                thread.setDaemon(true);
+                return thread;
+            });
+            try {
+                List<Future<?>> rangeReads = new ArrayList<>();
+                for (long fromId = minId; fromId <= maxId; fromId += SEARCH_INDEX_REBUILD_RANGE) {
+                    long rangeFromId = fromId;
+                    rangeReads.add(executor.submit(() -> transactionTemplate.execute(status -> {
+                        authorRepository.findDescriptionsByIdBetween(rangeFromId, rangeFromId + SEARCH_INDEX_REBUILD_RANGE - 1)
+                            .forEach(row -> authorSearchRepository.saveIfAbsent((Long) row[0], (String) row[1]));
+                        return null;
+                    })));
+                }
+                for (Future<?> rangeRead : rangeReads) {
+                    rangeRead.get();
+                }
+            } finally {
+                executor.shutdownNow();
+            }
+            log.info("Rebuilt the Author search index of {} authors in {} ms", authorSearchRepository.count(),
+                System.currentTimeMillis() - start);
+        } catch (ExecutionException e) {
+            log.warn("Could not rebuild the Author search index: {}", e.getCause().getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Interrupted while rebuilding the Author search index");
+        } catch (DataAccessException | PersistenceException | TransactionException e) {
+            log.warn("Could not rebuild the Author search index: {}", e.getMessage());
+        } finally {
+            authorSearchRepository.finishRebuild();
+        }
     }
 }
@@ -0,0 +1,225 @@
+package com.github.mgurov.jhipsterpgrnd.service;
+
+import com.github.mgurov.jhipsterpgrnd.domain.Author;
+import com.github.mgurov.jhipsterpgrnd.repository.TimeHistogramRepository;
+import com.github.mgurov.jhipsterpgrnd.service.util.StatsInterval;
+import com.github.mgurov.jhipsterpgrnd.web.rest.dto.AuthorStatsBucketDTO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.inject.Inject;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Service Implementation for the statistics of the authors.
+ *
+ * <p>
+ * The authors are counted by time bucket by the database. The counts of the closed buckets, which end before now,
+ * are cached, so that only the open bucket and the buckets never counted are counted again. A cached bucket is
+ * dropped when an author whose timestamp is in it is written, see {@link #invalidate(ZonedDateTime...)}, and at
+ * most after {@link #MAX_AGE_MILLIS}, which bounds its staleness when the authors are written by other nodes or
+ * outside of the application.
+ * </p>
+ * <p>
+ * The counts are read by read-write transactions, on the primary database, not to cache the counts of a replica
+ * which has not caught up with the last writes yet.
+ * </p>
+ */
+@Service
+@Transactional
+public class AuthorStatsService {
+
+    /**
+     * Maximum number of cached buckets by interval, all of them being dropped when it is reached.
+     */
+    private static final int MAX_CACHED_BUCKETS = 100_000;
+
+    /**
+     * Maximum age of a cached bucket.
+     */
+    private static final long MAX_AGE_MILLIS = 300_000;
+
+    private final Logger log = LoggerFactory.getLogger(AuthorStatsService.class);
+
+    @Inject
+    private TimeHistogramRepository timeHistogramRepository;
+
+    private final Map<StatsInterval, Map<LocalDateTime, Bucket>> closedBuckets = new EnumMap<>(StatsInterval.class);
+
+    /**
+     * Incremented by each drop, for the counts read before it not to be cached after it.
+     */
+    private long generation;
+
+    /**
+     * Held for reading to cache the counts of a generation, and for writing to drop buckets and start a generation.
+     */
+    private final ReadWriteLock generationLock = new ReentrantReadWriteLock();
+
+    public AuthorStatsService() {
+        for (StatsInterval interval : StatsInterval.values()) {
+            closedBuckets.put(interval, new ConcurrentHashMap<>());
+        }
+    }
+
+    /**
+     * Count the buckets of a time range, as {@link #countByInterval(StatsInterval, ZonedDateTime, ZonedDateTime)}
+     * would return them, in the time zone of the application.
+     *
+     * @param interval the interval of the buckets
+     * @param from the start of the time range, inclusive
+     * @param to the end of the time range, exclusive
+     * @return the number of buckets
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public long countBuckets(StatsInterval interval, ZonedDateTime from, ZonedDateTime to) {
+        ZoneId zone = ZoneId.systemDefault();
+        return interval.countBuckets(from.withZoneSameInstant(zone).toLocalDateTime(),
+            to.withZoneSameInstant(zone).toLocalDateTime());
+    }
+
+    /**
+     * Count the authors of a time range by bucket.
+     * <p>
+     * The buckets are aligned on the interval in the time zone of the application: the first bucket starts at or
+     * before the start of the time range.
+     * </p>
+     *
+     * @param interval the interval of the buckets
+     * @param from the start of the time range, inclusive
+     * @param to the end of the time range, exclusive
+     * @return all the buckets of the time range, in order, including the empty ones
+     */
+    public List<AuthorStatsBucketDTO> countByInterval(StatsInterval interval, ZonedDateTime from, ZonedDateTime to) {
+        log.debug("Request to count Authors by {} from {} to {}", interval, from, to);
+        ZoneId zone = ZoneId.systemDefault();
+        LocalDateTime start = interval.truncate(from.withZoneSameInstant(zone).toLocalDateTime());
+        LocalDateTime end = to.withZoneSameInstant(zone).toLocalDateTime();
+        LocalDateTime now = LocalDateTime.now(zone);
+        LocalDateTime closedEnd = end.isBefore(now) ? end : now;
+        long nowMillis = System.currentTimeMillis();
+        Map<LocalDateTime, Bucket> cached = closedBuckets.get(interval);
+
+        Map<LocalDateTime, Long> counts = new HashMap<>();
+        LocalDateTime firstMissing = start;
+        Bucket cachedBucket;
+        while (firstMissing.isBefore(end) && (cachedBucket = cached.get(firstMissing)) != null
+            && cachedBucket.expiresAt > nowMillis) {
+            counts.put(firstMissing, cachedBucket.count);
+            firstMissing = interval.next(firstMissing);
+        }
+
+        if (firstMissing.isBefore(end)) {
+            long countedGeneration = currentGeneration();
+            Map<LocalDateTime, Long> counted = new HashMap<>();
+            for (Object[] row : timeHistogramRepository.countByBucket(Author.class, "timestamp", interval.getFields(),
+                firstMissing.atZone(zone), to)) {
+                counted.put(interval.toStart(row), ((Number) row[row.length - 1]).longValue());
+            }
+            for (LocalDateTime bucket = firstMissing; bucket.isBefore(end); bucket = interval.next(bucket)) {
+                counts.put(bucket, counted.getOrDefault(bucket, 0L));
+            }
+            cache(cached, counts, firstMissing, closedEnd, interval, countedGeneration, nowMillis + MAX_AGE_MILLIS);
+        }
+
+        List<AuthorStatsBucketDTO> buckets = new ArrayList<>();
+        for (LocalDateTime bucket = start; bucket.isBefore(end); bucket = interval.next(bucket)) {
+            buckets.add(new AuthorStatsBucketDTO(bucket.atZone(zone), counts.get(bucket)));
+        }
+        return buckets;
+    }
+
+    /**
+     * Drop the cached buckets of the timestamps of written authors, once the current transaction, if any,
+     * is committed.
+     *
+     * @param timestamps the timestamps of the authors before and after they were written, null ones being ignored
+     */
+    public void invalidate(ZonedDateTime... timestamps) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+                @Override
+                public void afterCommit() {
+                    drop(timestamps);
+                }
+            });
+        } else {
+            drop(timestamps);
+        }
+    }
+
+    private long currentGeneration() {
+        generationLock.readLock().lock();
+        try {
+            return generation;
+        } finally {
+            generationLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Cache the counted closed buckets, unless a drop happened since they were counted.
+     */
+    private void cache(Map<LocalDateTime, Bucket> cached, Map<LocalDateTime, Long> counts, LocalDateTime from,
+        LocalDateTime closedEnd, StatsInterval interval, long countedGeneration, long expiresAt) {
+
+        generationLock.readLock().lock();
+        try {
+            if (countedGeneration != generation) {
+                return;
+            }
+            if (cached.size() >= MAX_CACHED_BUCKETS) {
+                cached.clear();
+            }
+            for (LocalDateTime bucket = from; !interval.next(bucket).isAfter(closedEnd); bucket = interval.next(bucket)) {
+                cached.put(bucket, new Bucket(counts.get(bucket), expiresAt));
+            }
+        } finally {
+            generationLock.readLock().unlock();
+        }
+    }
+
+    private void drop(ZonedDateTime... timestamps) {
+        generationLock.writeLock().lock();
+        try {
+            generation++;
+            ZoneId zone = ZoneId.systemDefault();
+            for (ZonedDateTime timestamp : timestamps) {
+                if (timestamp == null) {
+                    continue;
+                }
+                LocalDateTime time = timestamp.withZoneSameInstant(zone).toLocalDateTime();
+                closedBuckets.forEach((interval, cached) -> cached.remove(interval.truncate(time)));
+            }
+        } finally {
+            generationLock.writeLock().unlock();
+        }
+    }
+
+    private static final class Bucket {
+
+        private final long count;
+
+        private final long expiresAt;
+
+        private Bucket(long count, long expiresAt) {
+            this.count = count;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package com.github.mgurov.jhipsterpgrnd.service;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+import com.github.mgurov.jhipsterpgrnd.config.JHipsterProperties;
+import com.github.mgurov.jhipsterpgrnd.domain.Author;
+import com.github.mgurov.jhipsterpgrnd.repository.AuthorRepository;
+import com.github.mgurov.jhipsterpgrnd.web.rest.dto.AuthorChangeDTO;
+import com.github.mgurov.jhipsterpgrnd.web.rest.dto.AuthorDTO;
+import com.github.mgurov.jhipsterpgrnd.web.rest.mapper.AuthorMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+import javax.persistence.PersistenceException;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Service updating the timestamps of the authors, possibly behind the requests.
+ *
+ * <p>
+ * When the write-behind is enabled by "jhipster.writeBehind.enabled", the updates are kept in memory, the last one
+ * of each author replacing the previous ones, and written in batched transactions every flush interval, or as soon
+ * as a batch is full. The pending updates are written on shutdown too, but are lost if the application crashes.
+ * </p>
+ * <p>
+ * The number of pending updates is measured by the "pending" gauge and the number of updates replaced before being
+ * written by the "coalesced" counter of this service.
+ * </p>
+ */
+@Service
+public class AuthorTimestampWriter {
+
+    private static final String PENDING_METRIC = MetricRegistry.name(AuthorTimestampWriter.class, "pending");
+
+    private static final String COALESCED_METRIC = MetricRegistry.name(AuthorTimestampWriter.class, "coalesced");
+
+    private final Logger log = LoggerFactory.getLogger(AuthorTimestampWriter.class);
+
+    @Inject
+    private AuthorRepository authorRepository;
+
+    @Inject
+    private AuthorMapper authorMapper;
+
+    @Inject
+    private AuthorChangeFeed authorChangeFeed;
+
+    @Inject
+    private AuthorStatsService authorStatsService;
+
+    @Inject
+    private PlatformTransactionManager transactionManager;
+
+    @Inject
+    private MetricRegistry metricRegistry;
+
+    @Inject
+    private JHipsterProperties jHipsterProperties;
+
+    @Inject
+    @Qualifier("taskExecutor")
+    private TaskExecutor taskExecutor;
+
+    private final ConcurrentMap<Long, ZonedDateTime> pendingTimestamps = new ConcurrentHashMap<>();
+
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+
+    private TransactionTemplate transactionTemplate;
+
+    private Counter coalesced;
+
+    @PostConstruct
+    public void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        metricRegistry.register(PENDING_METRIC, (Gauge<Integer>) pendingTimestamps::size);
+        coalesced = metricRegistry.counter(COALESCED_METRIC);
+    }
+
+    /**
+     * @return true if the updates are written behind the requests
+     */
+    public boolean isWriteBehind() {
+        return jHipsterProperties.getWriteBehind().isEnabled();
+    }
+
+    /**
+     * Update the timestamp of an author.
+     * <p>
+     * With the write-behind, the update is only queued: it is dropped when written if the author does not exist
+     * anymore.
+     * </p>
+     *
+     * @param id the id of the author
+     * @param timestamp the new timestamp of the author
+     * @return false if the author does not exist, true otherwise
+     */
+    public boolean update(Long id, ZonedDateTime timestamp) {
+        log.debug("Request to update the timestamp of Author {} to {}", id, timestamp);
+        if (!isWriteBehind()) {
+            return transactionTemplate.execute(status -> {
+                Map<Long, ZonedDateTime> batch = new HashMap<>();
+                batch.put(id, timestamp);
+                return writeBatch(batch) == 1;
+            });
+        }
+        if (pendingTimestamps.put(id, timestamp) != null) {
+            coalesced.inc();
+        }
+        if (pendingTimestamps.size() >= jHipsterProperties.getWriteBehind().getBatchSize()
+            && flushRequested.compareAndSet(false, true)) {
+            try {
+                taskExecutor.execute(() -> {
+                    flushRequested.set(false);
+                    flush();
+                });
+            } catch (TaskRejectedException e) {
+                flushRequested.set(false);
+                log.warn("Could not flush the Author timestamps early, they will be on schedule: {}", e.getMessage());
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Write the pending updates, in batched transactions.
+     * <p>
+     * This is scheduled to get fired every flush interval, on shutdown, and when a batch is full. The updates of
+     * a failed batch are queued again, unless they were replaced in the meantime.
+     * </p>
+     */
+    @Scheduled(fixedDelayString = "${jhipster.writeBehind.flushIntervalMillis:1000}")
+    public synchronized void flush() {
+        while (!pendingTimestamps.isEmpty()) {
+            Map<Long, ZonedDateTime> batch = new HashMap<>();
+            for (Map.Entry<Long, ZonedDateTime> entry : pendingTimestamps.entrySet()) {
+                if (batch.size() >= jHipsterProperties.getWriteBehind().getBatchSize()) {
+                    break;
+                }
+                if (pendingTimestamps.remove(entry.getKey(), entry.getValue())) {
+                    batch.put(entry.getKey(), entry.getValue());
+                }
+            }
+            try {
+                int written = transactionTemplate.execute(status -> writeBatch(batch));
+                log.debug("Wrote the timestamps of {} Authors, {} were not found", written, batch.size() - written);
+            } catch (DataAccessException | PersistenceException | TransactionException e) {
+                log.warn("Could not write the timestamps of {} Authors, retrying later: {}", batch.size(), e.getMessage());
+                batch.forEach(pendingTimestamps::putIfAbsent);
+                return;
+            }
+        }
+    }
+
+    private int writeBatch(Map<Long, ZonedDateTime> batch) {
+        List<Author> authors = authorRepository.findAll(new ArrayList<>(batch.keySet()));
+        for (Author author : authors) {
+            authorStatsService.invalidate(author.getTimestamp(), batch.get(author.getId()));
+            author.setTimestamp(batch.get(author.getId()));
+        }
+        authorRepository.flush();
+        for (Author author : authors) {
+            AuthorDTO authorDTO = authorMapper.authorToAuthorDTO(author);
+            authorChangeFeed.publish(AuthorChangeDTO.Type.UPDATED, author.getId(), authorDTO);
+        }
+        return authors.size();
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (!pendingTimestamps.isEmpty()) {
+            log.info("Writing the timestamps of {} Authors before shutdown", pendingTimestamps.size());
+            flush();
+        }
+    }
+}
@@ -1,18 +1,28 @@
 package com.github.mgurov.jhipsterpgrnd.service;
 
+import com.github.mgurov.jhipsterpgrnd.config.datasource.ReplicaRoutingDataSource;
 import com.github.mgurov.jhipsterpgrnd.domain.Authority;
 import com.github.mgurov.jhipsterpgrnd.domain.User;
 import com.github.mgurov.jhipsterpgrnd.repository.AuthorityRepository;
+import com.github.mgurov.jhipsterpgrnd.repository.FieldProjectionRepository;
 import com.github.mgurov.jhipsterpgrnd.repository.PersistentTokenRepository;
+import com.github.mgurov.jhipsterpgrnd.repository.TableStatisticsRepository;
 import com.github.mgurov.jhipsterpgrnd.repository.UserRepository;
 import com.github.mgurov.jhipsterpgrnd.security.SecurityUtils;
+import com.github.mgurov.jhipsterpgrnd.service.util.CountCache;
+import com.github.mgurov.jhipsterpgrnd.service.util.CountMode;
 import com.github.mgurov.jhipsterpgrnd.service.util.RandomUtil;
+import com.github.mgurov.jhipsterpgrnd.service.util.SliceUtil;
 import com.github.mgurov.jhipsterpgrnd.web.rest.dto.ManagedUserDTO;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
 
 
@@ -20,6 +30,7 @@ import java.time.LocalDate;
 import java.time.ZonedDateTime;
 import javax.inject.Inject;
 import java.util.*;
+import java.util.stream.Collectors;
 
 /**
  * Service class for managing users.
@@ -28,8 +39,21 @@ import java.util.*;
 @Transactional
 public class UserService {
 
+    /**
+     * Fields of the users which can be read on their own, see {@link #findAll(Pageable, CountMode, List)}.
+     */
+    public static final Set<String> FIELDS = Collections.unmodifiableSet(new LinkedHashSet<>(Arrays.asList(
+        "id", "login", "firstName", "lastName", "email", "activated", "langKey", "authorities",
+        "createdDate", "lastModifiedBy", "lastModifiedDate")));
+
+    /**
+     * Maximum age of the cached user counts, which are invalidated by the creations and deletions anyway.
+     */
+    private static final long COUNT_MAX_AGE_MILLIS = 60_000;
+
     private final Logger log = LoggerFactory.getLogger(UserService.class);
 
+    private final CountCache countCache = new CountCache(COUNT_MAX_AGE_MILLIS, CountMode.values().length);
 
     @Inject
     private PasswordEncoder passwordEncoder;
@@ -44,6 +68,15 @@ public class UserService {
     @Inject
     private AuthorityRepository authorityRepository;
 
+    @Inject
+    private TableStatisticsRepository tableStatisticsRepository;
+
+    @Inject
+    private FieldProjectionRepository fieldProjectionRepository;
+
+    @Inject
+    private PlatformTransactionManager transactionManager;
+
     public Optional<User> activateRegistration(String key) {
         log.debug("Activating user for activation key {}", key);
         return userRepository.findOneByActivationKey(key)
@@ -106,6 +139,7 @@ public class UserService {
         authorities.add(authority);
         newUser.setAuthorities(authorities);
         userRepository.save(newUser);
+        countCache.invalidate();
         log.debug("Created Information for User: {}", newUser);
         return newUser;
     }
@@ -134,6 +168,7 @@ public class UserService {
         user.setResetDate(ZonedDateTime.now());
         user.setActivated(true);
         userRepository.save(user);
+        countCache.invalidate();
         log.debug("Created Information for User: {}", user);
         return user;
     }
@@ -152,6 +187,7 @@ public class UserService {
     public void deleteUserInformation(String login) {
         userRepository.findOneByLogin(login).ifPresent(u -> {
             userRepository.delete(u);
+            countCache.invalidate();
             log.debug("Deleted User: {}", u);
         });
     }
@@ -165,6 +201,86 @@ public class UserService {
         });
     }
 
+    /**
+     * Get all the users, with their authorities.
+     * <p>
+     * The ids of the slice are read first, then the users of these ids with their authorities, see
+     * {@link SliceUtil#loadByIds}.
+     * </p>
+     * <p>
+     * The total count of the users is cached until they are created or deleted, or estimated from the table
+     * statistics, or not counted at all, depending on the count mode.
+     * </p>
+     *
+     * @param pageable the pagination information
+     * @param countMode how to count the users
+     * @return the users, a page unless they are not counted
+     */
+    @Transactional(readOnly = true)
+    public Slice<User> findAll(Pageable pageable, CountMode countMode) {
+        Slice<User> users = SliceUtil.loadByIds(userRepository.findIdSlice(pageable), pageable,
+            userRepository::findAllWithAuthoritiesByIdIn, User::getId);
+        return count(users, pageable, countMode);
+    }
+
+    /**
+     * Get some fields of all the users, without loading the users.
+     * <p>
+     * The authorities, when asked for, are read by a single query for all the users of the slice.
+     * </p>
+     *
+     * @param pageable the pagination information
+     * @param countMode how to count the users
+     * @param fields the fields to get, among {@link #FIELDS}
+     * @return the values of the fields of each user, a page unless they are not counted
+     */
+    @Transactional(readOnly = true)
+    public Slice<Map<String, Object>> findAll(Pageable pageable, CountMode countMode, List<String> fields) {
+        boolean withAuthorities = fields.contains("authorities");
+        List<String> columns = fields.stream()
+            .filter(field -> !field.equals("authorities"))
+            .collect(Collectors.toList());
+        if (withAuthorities && !columns.contains("id")) {
+            columns.add("id");
+        }
+        Slice<Map<String, Object>> result = fieldProjectionRepository.findAll(User.class, columns, pageable);
+        if (withAuthorities && result.hasContent()) {
+            Map<Object, Set<String>> authorities = new HashMap<>();
+            List<Object> ids = result.getContent().stream().map(user -> user.get("id")).collect(Collectors.toList());
+            for (Object[] userAuthority : userRepository.findAuthorityNamesByIdIn(ids)) {
+                authorities.computeIfAbsent(userAuthority[0], id -> new HashSet<>()).add((String) userAuthority[1]);
+            }
+            List<Map<String, Object>> users = new ArrayList<>(result.getNumberOfElements());
+            for (Map<String, Object> columnValues : result) {
+                Map<String, Object> user = new LinkedHashMap<>();
+                for (String field : fields) {
+                    user.put(field, field.equals("authorities") ?
+                        authorities.getOrDefault(columnValues.get("id"), Collections.emptySet()) : columnValues.get(field));
+                }
+                users.add(user);
+            }
+            result = new SliceImpl<>(users, pageable, result.hasNext());
+        }
+        return count(result, pageable, countMode);
+    }
+
+    /**
+     * Count the users of a slice, on the primary database as the count is cached until the next write.
+     */
+    private <T> Slice<T> count(Slice<T> slice, Pageable pageable, CountMode countMode) {
+        switch (countMode) {
+            case NONE:
+                return slice;
+            case ESTIMATED:
+                return countCache.page(slice, pageable, countMode,
+                    () -> ReplicaRoutingDataSource.readFromPrimary(transactionManager,
+                        () -> tableStatisticsRepository.estimateRowCount("jhi_user").orElseGet(userRepository::count)));
+            default:
+                return countCache.page(slice, pageable, countMode,
+                    () -> ReplicaRoutingDataSource.readFromPrimary(transactionManager, userRepository::count));
+        }
+    }
+
     @Transactional(readOnly = true)
     public Optional<User> getUserWithAuthoritiesByLogin(String login) {
         return userRepository.findOneByLogin(login).map(u -> {
@@ -219,5 +335,6 @@ public class UserService {
             log.debug("Deleting not activated user {}", user.getLogin());
             userRepository.delete(user);
         }
+        countCache.invalidate();
     }
 }
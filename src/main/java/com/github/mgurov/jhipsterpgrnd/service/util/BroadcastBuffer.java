@@ -0,0 +1,110 @@
+package com.github.mgurov.jhipsterpgrnd.service.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded ring buffer of the last published values, read by any number of consumers by sequence number.
+ *
+ * <p>
+ * Publishing and reading do not lock: each value gets the next sequence number and overwrites the oldest value.
+ * A consumer keeps the sequence number of the last value it read, and is told when the values following it were
+ * overwritten, i.e. when it is more than the capacity of the buffer behind.
+ * </p>
+ *
+ * @param <T> the type of the values
+ */
+public class BroadcastBuffer<T> {
+
+    private final AtomicReferenceArray<Entry<T>> entries;
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    public BroadcastBuffer(int capacity) {
+        this.entries = new AtomicReferenceArray<>(capacity);
+    }
+
+    /**
+     * Publish a value.
+     *
+     * @param value the value
+     * @return the sequence number of the value
+     */
+    public long publish(T value) {
+        long next = sequence.incrementAndGet();
+        entries.set(index(next), new Entry<>(next, value));
+        return next;
+    }
+
+    /**
+     * @return the sequence number of the last published value, 0 if none
+     */
+    public long getSequence() {
+        return sequence.get();
+    }
+
+    /**
+     * Read the values following a sequence number, in order.
+     * <p>
+     * The reading stops at the first value which is not written yet, its publisher being still writing it.
+     * </p>
+     *
+     * @param after the sequence number of the last value read
+     * @param max the maximum number of values to read
+     * @return the entries of the values, or null if some of the values following the sequence number were
+     * overwritten, or if the sequence number was never published
+     */
+    public List<Entry<T>> readAfter(long after, int max) {
+        long last = sequence.get();
+        if (after < 0 || after > last || last - after > entries.length()) {
+            return null;
+        }
+        if (after == last) {
+            return Collections.emptyList();
+        }
+        List<Entry<T>> result = new ArrayList<>((int) Math.min(max, last - after));
+        for (long next = after + 1; next <= last && result.size() < max; next++) {
+            Entry<T> entry = entries.get(index(next));
+            if (entry == null || entry.sequence < next) {
+                break;
+            }
+            if (entry.sequence > next) {
+                return null;
+            }
+            result.add(entry);
+        }
+        return result;
+    }
+
+    private int index(long sequence) {
+        return (int) (sequence % entries.length());
+    }
+
+    /**
+     * A published value and its sequence number.
+     *
+     * @param <T> the type of the value
+     */
+    public static final class Entry<T> {
+
+        private final long sequence;
+
+        private final T value;
+
+        private Entry(long sequence, T value) {
+            this.sequence = sequence;
+            this.value = value;
+        }
+
+        public long getSequence() {
+            return sequence;
+        }
+
+        public T getValue() {
+            return value;
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.github.mgurov.jhipsterpgrnd.service.util;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Cache of the total counts of an entity, by filter.
+ *
+ * <p>
+ * A count is kept until the entity is written, see {@link #invalidate()}, and at most for the maximum age of the
+ * cache, which bounds its staleness when the writes are not tracked. The number of cached filters is bounded too:
+ * all the counts are dropped when it is reached.
+ * </p>
+ */
+public class CountCache {
+
+    private final long maxAgeMillis;
+
+    private final int maxFilters;
+
+    private final ConcurrentMap<Object, Count> counts = new ConcurrentHashMap<>();
+
+    /**
+     * Incremented by each clear, for the counts made before it not to be cached after it.
+     */
+    private long generation;
+
+    /**
+     * Held for reading to cache the counts of a generation, and for writing to clear the counts and start a generation.
+     */
+    private final ReadWriteLock generationLock = new ReentrantReadWriteLock();
+
+    public CountCache(long maxAgeMillis, int maxFilters) {
+        this.maxAgeMillis = maxAgeMillis;
+        this.maxFilters = maxFilters;
+    }
+
+    /**
+     * Get the cached count of a filter, counting it if it is not cached or too old.
+     *
+     * @param filter the filter, used as a key
+     * @param counter the actual count of the filter
+     * @return the count
+     */
+    public long count(Object filter, LongSupplier counter) {
+        long now = System.currentTimeMillis();
+        Count count = counts.get(filter);
+        if (count != null && count.expiresAt > now) {
+            return count.value;
+        }
+        long countedGeneration = currentGeneration();
+        long value = counter.getAsLong();
+        generationLock.readLock().lock();
+        try {
+            if (countedGeneration == generation) {
+                if (counts.size() >= maxFilters) {
+                    counts.clear();
+                }
+                counts.put(filter, new Count(value, now + maxAgeMillis));
+            }
+        } finally {
+            generationLock.readLock().unlock();
+        }
+        return value;
+    }
+
+    private long currentGeneration() {
+        generationLock.readLock().lock();
+        try {
+            return generation;
+        } finally {
+            generationLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Complete a slice of a listing with its total count.
+     * <p>
+     * The count is not needed when the slice is the last one and not empty, otherwise it is taken from the cache.
+     * </p>
+     *
+     * @param slice the slice of the listing
+     * @param pageable the pagination information of the slice
+     * @param filter the filter of the listing, used as a key
+     * @param counter the actual count of the listing
+     * @param <T> the type of the elements
+     * @return the page
+     */
+    public <T> Page<T> page(Slice<T> slice, Pageable pageable, Object filter, LongSupplier counter) {
+        if (!slice.hasNext() && (slice.hasContent() || pageable.getOffset() == 0)) {
+            return new PageImpl<>(slice.getContent(), pageable, pageable.getOffset() + slice.getNumberOfElements());
+        }
+        return new PageImpl<>(slice.getContent(), pageable, count(filter, counter));
+    }
+
+    /**
+     * Drop the cached counts once the current transaction, if any, is committed.
+     */
+    public void invalidate() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+                @Override
+                public void afterCommit() {
+                    clear();
+                }
+            });
+        } else {
+            clear();
+        }
+    }
+
+    private void clear() {
+        generationLock.writeLock().lock();
+        try {
+            generation++;
+            counts.clear();
+        } finally {
+            generationLock.writeLock().unlock();
+        }
+    }
+
+    private static final class Count {
+
+        private final long value;
+
+        private final long expiresAt;
+
+        private Count(long value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
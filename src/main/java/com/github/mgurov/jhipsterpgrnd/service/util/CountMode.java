@@ -0,0 +1,35 @@
+package com.github.mgurov.jhipsterpgrnd.service.util;
+
+/**
+ * How the total count of a paginated listing is obtained.
+ */
+public enum CountMode {
+
+    /**
+     * The exact count, possibly cached.
+     */
+    EXACT("true"),
+
+    /**
+     * The count estimated from the database statistics when available, the exact one otherwise.
+     */
+    ESTIMATED("estimated"),
+
+    /**
+     * No count at all.
+     */
+    NONE("false");
+
+    private final String parameter;
+
+    CountMode(String parameter) {
+        this.parameter = parameter;
+    }
+
+    /**
+     * @return the value of the "count" request parameter selecting this mode
+     */
+    public String getParameter() {
+        return parameter;
+    }
+}
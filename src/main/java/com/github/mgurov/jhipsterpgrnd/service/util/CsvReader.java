@@ -0,0 +1,87 @@
+package com.github.mgurov.jhipsterpgrnd.service.util;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Incremental reader of comma-separated values (RFC 4180).
+ *
+ * <p>
+ * Rows are read one at a time, so that arbitrarily large inputs can be processed. Fields may be quoted, a quoted
+ * field may contain commas, line breaks and doubled quotes.
+ * </p>
+ */
+public class CsvReader implements Closeable {
+
+    private static final char SEPARATOR = ',';
+
+    private static final char QUOTE = '"';
+
+    private final Reader reader;
+
+    private long rowNumber;
+
+    public CsvReader(Reader reader) {
+        this.reader = reader instanceof BufferedReader ? reader : new BufferedReader(reader);
+    }
+
+    /**
+     * Read the next row.
+     *
+     * @return the fields of the row, or null at the end of the input
+     * @throws IOException if the input couldnt be read
+     * @throws IllegalArgumentException if a quoted field is not terminated
+     */
+    public String[] readRow() throws IOException {
+        int c = reader.read();
+        if (c == -1) {
+            return null;
+        }
+        rowNumber++;
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        while (true) {
+            if (quoted) {
+                if (c == -1) {
+                    throw new IllegalArgumentException("Unterminated quoted field in row " + rowNumber);
+                }
+                if (c == QUOTE) {
+                    c = reader.read();
+                    if (c != QUOTE) {
+                        quoted = false;
+                        continue;
+                    }
+                }
+                field.append((char) c);
+            } else if (c == QUOTE && field.length() == 0) {
+                quoted = true;
+            } else if (c == SEPARATOR) {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\n' || c == -1) {
+                fields.add(field.toString());
+                return fields.toArray(new String[fields.size()]);
+            } else if (c != '\r') {
+                field.append((char) c);
+            }
+            c = reader.read();
+        }
+    }
+
+    /**
+     * @return the number of the last row read, starting at 1
+     */
+    public long getRowNumber() {
+        return rowNumber;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
@@ -0,0 +1,48 @@
+package com.github.mgurov.jhipsterpgrnd.service.util;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Utility class for loading slices of entities.
+ */
+public final class SliceUtil {
+
+    private SliceUtil() {
+    }
+
+    /**
+     * Load the entities of a slice of ids.
+     * <p>
+     * The entities of the ids are loaded by a single query, so the number of queries does not depend on the number
+     * of entities, and are returned in the order of their ids. This is how entities with collections fetched along
+     * are sliced: fetching the collections with the slice itself would apply the slice in memory.
+     * </p>
+     *
+     * @param ids the slice of ids
+     * @param pageable the pagination information of the slice
+     * @param loader the query loading the entities of some ids
+     * @param idOf the id of an entity
+     * @param <T> the type of the entities
+     * @return the entities of the ids still existing, in the order of their ids
+     */
+    public static <T> Slice<T> loadByIds(Slice<Long> ids, Pageable pageable, Function<List<Long>, List<T>> loader,
+        Function<T, Long> idOf) {
+
+        Map<Long, T> entities = !ids.hasContent() ? Collections.emptyMap() : loader.apply(ids.getContent()).stream()
+            .collect(Collectors.toMap(idOf, Function.identity()));
+        List<T> content = ids.getContent().stream()
+            .map(entities::get)
+            .filter(Objects::nonNull)
+            .collect(Collectors.toList());
+        return new SliceImpl<>(content, pageable, ids.hasNext());
+    }
+}
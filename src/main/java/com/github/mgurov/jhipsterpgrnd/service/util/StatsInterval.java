@@ -0,0 +1,87 @@
+package com.github.mgurov.jhipsterpgrnd.service.util;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Interval of the buckets of a time histogram.
+ */
+public enum StatsInterval {
+
+    MINUTE("minute", ChronoUnit.MINUTES, "year", "month", "day", "hour", "minute"),
+
+    HOUR("hour", ChronoUnit.HOURS, "year", "month", "day", "hour"),
+
+    DAY("day", ChronoUnit.DAYS, "year", "month", "day"),
+
+    MONTH("month", ChronoUnit.MONTHS, "year", "month");
+
+    private final String parameter;
+
+    private final ChronoUnit unit;
+
+    private final List<String> fields;
+
+    StatsInterval(String parameter, ChronoUnit unit, String... fields) {
+        this.parameter = parameter;
+        this.unit = unit;
+        this.fields = Collections.unmodifiableList(Arrays.asList(fields));
+    }
+
+    /**
+     * @return the value of the "interval" request parameter selecting this interval
+     */
+    public String getParameter() {
+        return parameter;
+    }
+
+    /**
+     * @return the date and time fields identifying a bucket, the largest first
+     */
+    public List<String> getFields() {
+        return fields;
+    }
+
+    /**
+     * @param time a time
+     * @return the start of the bucket of the time
+     */
+    public LocalDateTime truncate(LocalDateTime time) {
+        if (this == MONTH) {
+            return time.truncatedTo(ChronoUnit.DAYS).withDayOfMonth(1);
+        }
+        return time.truncatedTo(unit);
+    }
+
+    /**
+     * @param start the start of a bucket
+     * @return the start of the next bucket
+     */
+    public LocalDateTime next(LocalDateTime start) {
+        return start.plus(1, unit);
+    }
+
+    /**
+     * @param values the values of the fields identifying a bucket, as numbers, see {@link #getFields()}
+     * @return the start of the bucket
+     */
+    public LocalDateTime toStart(Object[] values) {
+        int[] dateTime = {0, 1, 1, 0, 0};
+        for (int i = 0; i < fields.size(); i++) {
+            dateTime[i] = ((Number) values[i]).intValue();
+        }
+        return LocalDateTime.of(dateTime[0], dateTime[1], dateTime[2], dateTime[3], dateTime[4]);
+    }
+
+    /**
+     * @param from the start of a time range
+     * @param to the end of the time range
+     * @return the number of buckets of the time range, or one more
+     */
+    public long countBuckets(LocalDateTime from, LocalDateTime to) {
+        return unit.between(truncate(from), to) + 1;
+    }
+}
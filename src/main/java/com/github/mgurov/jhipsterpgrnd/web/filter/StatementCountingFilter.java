@@ -0,0 +1,151 @@
+package com.github.mgurov.jhipsterpgrnd.web.filter;
+
+import com.codahale.metrics.MetricRegistry;
+import com.github.mgurov.jhipsterpgrnd.config.JHipsterProperties;
+import com.github.mgurov.jhipsterpgrnd.config.datasource.StatementCounter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This filter counts the JDBC statements of each request, and the time spent executing them, to find the requests
+ * loading their data one row at a time.
+ * <p>
+ * A warning is logged for the requests executing more statements than the budget. In development, the counts are
+ * sent in the X-Statement-Count and X-JDBC-Time (in milliseconds) headers, as counted when the response is
+ * committed. In production, they are measured by the "statements" histogram and the "jdbc" timer of each endpoint,
+ * named after the HTTP method and the path pattern of the endpoint. The statements of the asynchronous requests are
+ * not counted.
+ * </p>
+ */
+public class StatementCountingFilter extends OncePerRequestFilter {
+
+    public static final String STATEMENT_COUNT_HEADER = "X-Statement-Count";
+
+    public static final String JDBC_TIME_HEADER = "X-JDBC-Time";
+
+    private static final String UNMAPPED_ENDPOINT = "unmapped";
+
+    private final Logger log = LoggerFactory.getLogger(StatementCountingFilter.class);
+
+    private final JHipsterProperties jHipsterProperties;
+
+    private final boolean headers;
+
+    private final MetricRegistry metricRegistry;
+
+    /**
+     * @param jHipsterProperties the properties holding the statement budget
+     * @param headers whether to send the counts in the response headers
+     * @param metricRegistry the registry of the endpoint metrics, or null to not measure the endpoints
+     */
+    public StatementCountingFilter(JHipsterProperties jHipsterProperties, boolean headers, MetricRegistry metricRegistry) {
+        this.jHipsterProperties = jHipsterProperties;
+        this.headers = headers;
+        this.metricRegistry = metricRegistry;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+        throws ServletException, IOException {
+
+        StatementCounter counter = StatementCounter.start();
+        StatementCountResponse countedResponse = headers ? new StatementCountResponse(response, counter) : null;
+        try {
+            filterChain.doFilter(request, countedResponse != null ? countedResponse : response);
+            if (countedResponse != null) {
+                countedResponse.addHeaders();
+            }
+        } finally {
+            counter.stop();
+        }
+        if (isAsyncStarted(request)) {
+            return;
+        }
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        if (metricRegistry != null) {
+            String endpoint = MetricRegistry.name(request.getMethod(), pattern != null ? pattern.toString() : UNMAPPED_ENDPOINT);
+            metricRegistry.histogram(MetricRegistry.name(StatementCountingFilter.class, endpoint, "statements"))
+                .update(counter.getStatements());
+            metricRegistry.timer(MetricRegistry.name(StatementCountingFilter.class, endpoint, "jdbc"))
+                .update(counter.getJdbcNanos(), TimeUnit.NANOSECONDS);
+        }
+        int budget = jHipsterProperties.getDatasource().getStatementBudget();
+        if (counter.getStatements() > budget) {
+            log.warn("{} {} executed {} statements in {} ms, over the budget of {} statements, endpoint {}",
+                request.getMethod(), request.getRequestURI(), counter.getStatements(),
+                TimeUnit.NANOSECONDS.toMillis(counter.getJdbcNanos()), budget, pattern);
+        }
+    }
+
+    /**
+     * Response adding the counts to its headers when being committed, as they cannot be added afterwards.
+     */
+    private static class StatementCountResponse extends HttpServletResponseWrapper {
+
+        private final StatementCounter counter;
+
+        private boolean headersAdded;
+
+        StatementCountResponse(HttpServletResponse response, StatementCounter counter) {
+            super(response);
+            this.counter = counter;
+        }
+
+        private void addHeaders() {
+            if (headersAdded || isCommitted()) {
+                return;
+            }
+            headersAdded = true;
+            setHeader(STATEMENT_COUNT_HEADER, String.valueOf(counter.getStatements()));
+            setHeader(JDBC_TIME_HEADER, String.valueOf(TimeUnit.NANOSECONDS.toMillis(counter.getJdbcNanos())));
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            addHeaders();
+            return super.getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            addHeaders();
+            return super.getWriter();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            addHeaders();
+            super.flushBuffer();
+        }
+
+        @Override
+        public void sendError(int sc) throws IOException {
+            addHeaders();
+            super.sendError(sc);
+        }
+
+        @Override
+        public void sendError(int sc, String msg) throws IOException {
+            addHeaders();
+            super.sendError(sc, msg);
+        }
+
+        @Override
+        public void sendRedirect(String location) throws IOException {
+            addHeaders();
+            super.sendRedirect(location);
+        }
+    }
+}
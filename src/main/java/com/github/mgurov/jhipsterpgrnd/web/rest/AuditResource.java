@@ -1,12 +1,13 @@
 package com.github.mgurov.jhipsterpgrnd.web.rest;
 
 import com.github.mgurov.jhipsterpgrnd.service.AuditEventService;
+import com.github.mgurov.jhipsterpgrnd.service.util.CountMode;
 
 import java.time.LocalDate;
 import com.github.mgurov.jhipsterpgrnd.web.rest.util.PaginationUtil;
 import org.springframework.boot.actuate.audit.AuditEvent;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
@@ -36,13 +37,16 @@ public class AuditResource {
      * GET  /audits : get a page of AuditEvents.
      *
      * @param pageable the pagination information
+     * @param count how to count the AuditEvents: "true" (the default, cached), "estimated" or "false"
      * @return the ResponseEntity with status 200 (OK) and the list of AuditEvents in body
      * @throws URISyntaxException if there is an error to generate the pagination HTTP headers
      */
     @RequestMapping(method = RequestMethod.GET)
-    public ResponseEntity<List<AuditEvent>> getAll(Pageable pageable) throws URISyntaxException {
-        Page<AuditEvent> page = auditEventService.findAll(pageable);
-        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(page, "/api/audits");
+    public ResponseEntity<List<AuditEvent>> getAll(Pageable pageable,
+        @RequestParam(value = "count", required = false) String count) throws URISyntaxException {
+        CountMode countMode = PaginationUtil.parseCountMode(count);
+        Slice<AuditEvent> page = auditEventService.findAll(pageable, countMode);
+        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(page, "/api/audits", countMode);
         return new ResponseEntity<>(page.getContent(), headers, HttpStatus.OK);
     }
 
@@ -52,6 +56,8 @@ public class AuditResource {
      * @param fromDate the start of the time period of AuditEvents to get
      * @param toDate the end of the time period of AuditEvents to get
      * @param pageable the pagination information
+     * @param count how to count the AuditEvents: "true" (the default, cached) or "false", a date range is never
+     * estimated
      * @return the ResponseEntity with status 200 (OK) and the list of AuditEvents in body
      * @throws URISyntaxException if there is an error to generate the pagination HTTP headers
      */
@@ -61,10 +67,12 @@ public class AuditResource {
     public ResponseEntity<List<AuditEvent>> getByDates(
         @RequestParam(value = "fromDate") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fromDate,
         @RequestParam(value = "toDate") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate toDate,
-        Pageable pageable) throws URISyntaxException {
+        Pageable pageable, @RequestParam(value = "count", required = false) String count) throws URISyntaxException {
 
-        Page<AuditEvent> page = auditEventService.findByDates(fromDate.atTime(0, 0), toDate.atTime(23, 59), pageable);
-        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(page, "/api/audits");
+        CountMode countMode = PaginationUtil.parseCountMode(count);
+        Slice<AuditEvent> page = auditEventService.findByDates(fromDate.atTime(0, 0), toDate.atTime(23, 59), pageable,
+            countMode);
+        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(page, "/api/audits", countMode);
         return new ResponseEntity<>(page.getContent(), headers, HttpStatus.OK);
     }
 
@@ -1,58 +1,153 @@
 package com.github.mgurov.jhipsterpgrnd.web.rest;
 
 import com.codahale.metrics.annotation.Timed;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonSerializable;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.mgurov.jhipsterpgrnd.domain.ArchivedAuthor;
 import com.github.mgurov.jhipsterpgrnd.domain.Author;
+import com.github.mgurov.jhipsterpgrnd.service.AuthorChangeFeed;
 import com.github.mgurov.jhipsterpgrnd.service.AuthorService;
+import com.github.mgurov.jhipsterpgrnd.service.AuthorStatsService;
+import com.github.mgurov.jhipsterpgrnd.service.AuthorTimestampWriter;
+import com.github.mgurov.jhipsterpgrnd.service.util.CountMode;
+import com.github.mgurov.jhipsterpgrnd.service.util.CsvReader;
+import com.github.mgurov.jhipsterpgrnd.service.util.StatsInterval;
+import com.github.mgurov.jhipsterpgrnd.web.rest.util.ETagUtil;
+import com.github.mgurov.jhipsterpgrnd.web.rest.util.FieldsUtil;
 import com.github.mgurov.jhipsterpgrnd.web.rest.util.HeaderUtil;
+import com.github.mgurov.jhipsterpgrnd.web.rest.util.IdempotencyKeyStore;
 import com.github.mgurov.jhipsterpgrnd.web.rest.util.PaginationUtil;
+import com.github.mgurov.jhipsterpgrnd.web.rest.dto.AuthorBulkResultDTO;
+import com.github.mgurov.jhipsterpgrnd.web.rest.dto.AuthorChangeDTO;
 import com.github.mgurov.jhipsterpgrnd.web.rest.dto.AuthorDTO;
+import com.github.mgurov.jhipsterpgrnd.web.rest.dto.AuthorStatsBucketDTO;
+import com.github.mgurov.jhipsterpgrnd.web.rest.errors.CustomParameterizedException;
 import com.github.mgurov.jhipsterpgrnd.web.rest.mapper.AuthorMapper;
+import com.github.mgurov.jhipsterpgrnd.web.rest.mapper.AuthorStreamingMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.dao.ConcurrencyFailureException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.util.UriComponentsBuilder;
 
 import javax.inject.Inject;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.Optional;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.stream.Collectors;
 
+import static com.github.mgurov.jhipsterpgrnd.config.JacksonConfiguration.APPLICATION_CBOR_VALUE;
+import static com.github.mgurov.jhipsterpgrnd.config.JacksonConfiguration.APPLICATION_SMILE_VALUE;
+
 /**
  * REST controller for managing Author.
  */
 @RestController
-@RequestMapping("/api")
+@RequestMapping(value = "/api",
+    produces = {MediaType.APPLICATION_JSON_VALUE, APPLICATION_SMILE_VALUE, APPLICATION_CBOR_VALUE})
 public class AuthorResource {
 
+    /** Newline-delimited JSON, one author per line */
+    public static final String APPLICATION_NDJSON_VALUE = "application/x-ndjson";
+
+    /** Comma-separated values, with a header row naming the columns */
+    public static final String TEXT_CSV_VALUE = "text/csv";
+
+    /** Server-sent events */
+    public static final String TEXT_EVENT_STREAM_VALUE = "text/event-stream";
+
+    /**
+     * Time after which the change feed of a client is closed, the client reconnecting with the last event id.
+     */
+    private static final long CHANGES_TIMEOUT_MILLIS = 30 * 60 * 1000;
+
+    /**
+     * Maximum number of buckets of the Author histogram.
+     */
+    private static final int MAX_STATS_BUCKETS = 1000;
+
+    /**
+     * Parameters of the listings of the authors which the listing of the archived authors does not support.
+     */
+    private static final List<String> UNARCHIVED_LISTING_PARAMS = Arrays.asList("after", "from", "to", "fields");
+
     private final Logger log = LoggerFactory.getLogger(AuthorResource.class);
         
     @Inject
     private AuthorService authorService;
     
+    @Inject
+    private AuthorChangeFeed authorChangeFeed;
+
+    @Inject
+    private AuthorTimestampWriter authorTimestampWriter;
+
+    @Inject
+    private AuthorStatsService authorStatsService;
+
     @Inject
     private AuthorMapper authorMapper;
+
+    @Inject
+    private ObjectMapper objectMapper;
+
+    @Inject
+    private IdempotencyKeyStore idempotencyKeyStore;
     
     /**
      * POST  /authors : Create a new author.
+     * <p>
+     * A request retried with the same Idempotency-Key header is sent the response of the first one, see
+     * {@link IdempotencyKeyStore}.
+     * </p>
      *
      * @param authorDTO the authorDTO to create
-     * @return the ResponseEntity with status 201 (Created) and with body the new authorDTO, or with status 400 (Bad Request) if the author has already an ID
+     * @param idempotencyKey the key identifying the request among its retries, if any
+     * @return the ResponseEntity with status 201 (Created) and with body the new authorDTO, or with status 400 (Bad Request) if the author has already an ID,
+     * or with status 409 (Conflict) if a request with the same Idempotency-Key is in progress, or with status 422
+     * (Unprocessable Entity) if the Idempotency-Key was used for another author
      * @throws URISyntaxException if the Location URI syntax is incorrect
      */
     @RequestMapping(value = "/authors",
-        method = RequestMethod.POST,
-        produces = MediaType.APPLICATION_JSON_VALUE)
+        method = RequestMethod.POST)
     @Timed
-    public ResponseEntity<AuthorDTO> createAuthor(@RequestBody AuthorDTO authorDTO) throws URISyntaxException {
+    public ResponseEntity<AuthorDTO> createAuthor(@RequestBody AuthorDTO authorDTO,
+        @RequestHeader(value = IdempotencyKeyStore.IDEMPOTENCY_KEY, required = false) String idempotencyKey)
+        throws URISyntaxException {
+        return idempotencyKeyStore.execute(idempotencyKey, "POST /api/authors", authorDTO, () -> createAuthor(authorDTO));
+    }
+
+    private ResponseEntity<AuthorDTO> createAuthor(AuthorDTO authorDTO) throws URISyntaxException {
         log.debug("REST request to save Author : {}", authorDTO);
         if (authorDTO.getId() != null) {
             return ResponseEntity.badRequest().headers(HeaderUtil.createFailureAlert("author", "idexists", "A new author cannot already have an ID")).body(null);
@@ -63,68 +158,490 @@ public class AuthorResource {
             .body(result);
     }
 
+    /**
+     * POST  /authors/_bulk : Create or update authors in bulk.
+     * <p>
+     * Authors without an id are created, the others are updated. The authors are saved in JDBC batches,
+     * in chunked transactions.
+     * A request retried with the same Idempotency-Key header is sent the response of the first one.
+     * </p>
+     *
+     * @param authorDTOs the authorDTOs to save
+     * @param idempotencyKey the key identifying the request among its retries, if any
+     * @return the ResponseEntity with status 200 (OK) and with body the result of each author, in the request order:
+     * status 201 (Created) with the new id, 200 (OK), 404 (Not Found) if the author to update does not exist,
+     * or 500 (Internal Server Error) if its chunk couldnt be saved
+     */
+    @RequestMapping(value = "/authors/_bulk",
+        method = RequestMethod.POST)
+    @Timed
+    public ResponseEntity<List<AuthorBulkResultDTO>> bulkSaveAuthors(@RequestBody List<AuthorDTO> authorDTOs,
+        @RequestHeader(value = IdempotencyKeyStore.IDEMPOTENCY_KEY, required = false) String idempotencyKey) {
+        return idempotencyKeyStore.execute(idempotencyKey, "POST /api/authors/_bulk", authorDTOs, () -> {
+            log.debug("REST request to save {} Authors in bulk", authorDTOs.size());
+            List<AuthorBulkResultDTO> results = authorService.saveAll(authorDTOs);
+            return new ResponseEntity<>(results, HttpStatus.OK);
+        });
+    }
+
+    /**
+     * POST  /authors/_import : Import new authors from newline-delimited JSON.
+     * <p>
+     * The request body is parsed and persisted incrementally, see {@link AuthorService#importAll(Iterator)}.
+     * </p>
+     *
+     * @param request the HTTP request, with one author per line in body
+     * @return the ResponseEntity with status 200 (OK), or with status 400 (Bad Request) if an author couldnt be parsed
+     * @throws IOException if the request couldnt be read
+     */
+    @RequestMapping(value = "/authors/_import",
+        method = RequestMethod.POST,
+        consumes = APPLICATION_NDJSON_VALUE,
+        produces = MediaType.APPLICATION_JSON_VALUE)
+    @Timed
+    public ResponseEntity<Void> importAuthorsFromNdjson(HttpServletRequest request) throws IOException {
+        log.debug("REST request to import Authors from NDJSON");
+        try (MappingIterator<Author> authors = objectMapper.readerFor(Author.class).readValues(request.getInputStream())) {
+            return importAuthors(new NdjsonAuthorIterator(authors));
+        }
+    }
+
+    /**
+     * POST  /authors/_import : Import new authors from CSV.
+     * <p>
+     * The first row names the columns, "description" and "timestamp" (ISO-8601) are imported, the others are ignored.
+     * The request body is parsed and persisted incrementally, see {@link AuthorService#importAll(Iterator)}.
+     * </p>
+     *
+     * @param request the HTTP request, with one author per row in body
+     * @return the ResponseEntity with status 200 (OK), or with status 400 (Bad Request) if an author couldnt be parsed
+     * @throws IOException if the request couldnt be read
+     */
+    @RequestMapping(value = "/authors/_import",
+        method = RequestMethod.POST,
+        consumes = TEXT_CSV_VALUE,
+        produces = MediaType.APPLICATION_JSON_VALUE)
+    @Timed
+    public ResponseEntity<Void> importAuthorsFromCsv(HttpServletRequest request) throws IOException {
+        log.debug("REST request to import Authors from CSV");
+        try (CsvReader reader = new CsvReader(request.getReader())) {
+            return importAuthors(new CsvAuthorIterator(reader));
+        }
+    }
+
+    private ResponseEntity<Void> importAuthors(Iterator<Author> authors) throws IOException {
+        try {
+            long imported = authorService.importAll(authors);
+            return ResponseEntity.ok()
+                .headers(HeaderUtil.createAlert(imported + " authors are imported", String.valueOf(imported)))
+                .build();
+        } catch (IllegalArgumentException | DateTimeException e) {
+            return ResponseEntity.badRequest()
+                .headers(HeaderUtil.createFailureAlert("author", "importfailed", e.getMessage()))
+                .build();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
     /**
      * PUT  /authors : Updates an existing author.
+     * <p>
+     * The author is only updated if it was not modified since the version given in the body or the ETag given in
+     * the If-Match header, without locking it.
+     * </p>
      *
      * @param authorDTO the authorDTO to update
+     * @param ifMatch the ETags of the author expected by the client, if any
      * @return the ResponseEntity with status 200 (OK) and with body the updated authorDTO,
      * or with status 400 (Bad Request) if the authorDTO is not valid,
+     * or with status 404 (Not Found) if the author does not exist,
+     * or with status 409 (Conflict) if the author was modified since the version of the authorDTO,
+     * or with status 412 (Precondition Failed) if the author does not match the If-Match header,
      * or with status 500 (Internal Server Error) if the authorDTO couldnt be updated
      * @throws URISyntaxException if the Location URI syntax is incorrect
      */
     @RequestMapping(value = "/authors",
-        method = RequestMethod.PUT,
-        produces = MediaType.APPLICATION_JSON_VALUE)
+        method = RequestMethod.PUT)
     @Timed
-    public ResponseEntity<AuthorDTO> updateAuthor(@RequestBody AuthorDTO authorDTO) throws URISyntaxException {
+    public ResponseEntity<AuthorDTO> updateAuthor(@RequestBody AuthorDTO authorDTO,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) throws URISyntaxException {
         log.debug("REST request to update Author : {}", authorDTO);
         if (authorDTO.getId() == null) {
             return createAuthor(authorDTO);
         }
-        AuthorDTO result = authorService.save(authorDTO);
+        AuthorDTO result;
+        try {
+            result = ifMatch == null ? authorService.save(authorDTO) : authorService.save(authorDTO,
+                current -> current != null && ETagUtil.matchesStrongly(ifMatch, authorETag(current)));
+        } catch (ConcurrencyFailureException e) {
+            if (ifMatch != null) {
+                return preconditionFailed();
+            }
+            throw e;
+        }
+        if (result == null) {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        }
         return ResponseEntity.ok()
             .headers(HeaderUtil.createEntityUpdateAlert("author", authorDTO.getId().toString()))
+            .eTag(authorETag(result))
             .body(result);
     }
 
+    /**
+     * PUT  /authors/:id/timestamp?timestamp=:timestamp : update the timestamp of the "id" author.
+     * <p>
+     * With the write-behind enabled, the update is written later, the last update of the author replacing the
+     * previous ones, see {@link AuthorTimestampWriter}.
+     * </p>
+     *
+     * @param id the id of the author to update
+     * @param timestamp the new timestamp of the author
+     * @return the ResponseEntity with status 200 (OK) if the author is updated,
+     * or with status 202 (Accepted) if the update is written behind,
+     * or with status 404 (Not Found) if the author does not exist
+     */
+    @RequestMapping(value = "/authors/{id}/timestamp",
+        method = RequestMethod.PUT,
+        produces = MediaType.APPLICATION_JSON_VALUE)
+    @Timed
+    public ResponseEntity<Void> updateAuthorTimestamp(@PathVariable Long id,
+        @RequestParam(value = "timestamp") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) ZonedDateTime timestamp) {
+        log.debug("REST request to update the timestamp of Author {} to {}", id, timestamp);
+        boolean writeBehind = authorTimestampWriter.isWriteBehind();
+        if (!authorTimestampWriter.update(id, timestamp)) {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        }
+        return new ResponseEntity<>(writeBehind ? HttpStatus.ACCEPTED : HttpStatus.OK);
+    }
+
+    private static ResponseEntity<AuthorDTO> preconditionFailed() {
+        return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED)
+            .headers(HeaderUtil.createFailureAlert("author", "preconditionfailed", "Author modified concurrently"))
+            .build();
+    }
+
     /**
      * GET  /authors : get all the authors.
+     * <p>
+     * The ETag of the response is the hash of the page. When it matches the If-None-Match header,
+     * the page is not sent. The authors are written without DTOs, see {@link AuthorStreamingMapper}.
+     * </p>
+     *
+     * @param pageable the pagination information
+     * @param count how to count the authors: "true" (the default, cached), "estimated" or "false"
+     * @param ifNoneMatch the ETags of the pages known by the client, if any
+     * @return the ResponseEntity with status 200 (OK) and the list of authors in body,
+     * or with status 304 (Not Modified) if the page is known by the client
+     * @throws URISyntaxException if there is an error to generate the pagination HTTP headers
+     */
+    @RequestMapping(value = "/authors",
+        method = RequestMethod.GET)
+    @Timed
+    @Transactional(readOnly = true)
+    public ResponseEntity<JsonSerializable> getAllAuthors(Pageable pageable,
+        @RequestParam(value = "count", required = false) String count,
+        @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch)
+        throws URISyntaxException {
+        log.debug("REST request to get a page of Authors");
+        CountMode countMode = PaginationUtil.parseCountMode(count);
+        Slice<Author> page = authorService.findAll(pageable, countMode);
+        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(page, "/api/authors", countMode);
+        headers.setETag(pageETag(page));
+        if (ETagUtil.matches(ifNoneMatch, headers.getETag())) {
+            return new ResponseEntity<>(headers, HttpStatus.NOT_MODIFIED);
+        }
+        return new ResponseEntity<>(AuthorStreamingMapper.authorsToAuthorDTOs(page.getContent()), headers, HttpStatus.OK);
+    }
+
+    /**
+     * GET  /authors?archived=true : get all the archived authors.
+     * <p>
+     * The archived authors are only paginated by page: the keyset, time-range and fields parameters of the other
+     * listings are rejected rather than ignored.
+     * </p>
+     *
+     * @param pageable the pagination information
+     * @param request the HTTP request, for its parameters
+     * @return the ResponseEntity with status 200 (OK) and the list of archived authors in body,
+     * or with status 400 (Bad Request) if a parameter of the other listings is given
+     * @throws URISyntaxException if there is an error to generate the pagination HTTP headers
+     */
+    @RequestMapping(value = "/authors",
+        method = RequestMethod.GET,
+        params = "archived=true")
+    @Timed
+    public ResponseEntity<List<AuthorDTO>> getAllArchivedAuthors(Pageable pageable, HttpServletRequest request)
+        throws URISyntaxException {
+        log.debug("REST request to get a page of archived Authors");
+        for (String param : UNARCHIVED_LISTING_PARAMS) {
+            if (request.getParameter(param) != null) {
+                throw new CustomParameterizedException("Unsupported parameter of the archived authors", param);
+            }
+        }
+        Page<ArchivedAuthor> page = authorService.findAllArchived(pageable);
+        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(page, "/api/authors?archived=true");
+        return new ResponseEntity<>(authorMapper.archivedAuthorsToAuthorDTOs(page.getContent()), headers, HttpStatus.OK);
+    }
+
+    /**
+     * GET  /authors?fields=:fields : get some fields of all the authors.
+     * <p>
+     * Only the columns of the fields are read from the database, and only the fields are sent.
+     * </p>
      *
+     * @param fields the comma separated fields to get, among id, description, timestamp and version
      * @param pageable the pagination information
+     * @param count how to count the authors: "true" (the default, cached), "estimated" or "false"
+     * @return the ResponseEntity with status 200 (OK) and the fields of the authors in body,
+     * or with status 400 (Bad Request) if a field is unknown
+     * @throws URISyntaxException if there is an error to generate the pagination HTTP headers
+     */
+    @RequestMapping(value = "/authors",
+        method = RequestMethod.GET,
+        params = {"fields", "!after", "!from", "archived!=true"})
+    @Timed
+    public ResponseEntity<List<Map<String, Object>>> getAllAuthorFields(@RequestParam(value = "fields") String fields,
+        Pageable pageable, @RequestParam(value = "count", required = false) String count)
+        throws URISyntaxException {
+        log.debug("REST request to get the fields {} of a page of Authors", fields);
+        CountMode countMode = PaginationUtil.parseCountMode(count);
+        Slice<Map<String, Object>> page = authorService.findAll(pageable, countMode,
+            FieldsUtil.parseFields(fields, AuthorService.FIELDS));
+        String baseUrl = UriComponentsBuilder.fromPath("/api/authors").queryParam("fields", fields).toUriString();
+        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(page, baseUrl, countMode);
+        return new ResponseEntity<>(page.getContent(), headers, HttpStatus.OK);
+    }
+
+    /**
+     * GET  /authors?after=:id : get the authors following the "id" author, ordered by id.
+     * <p>
+     * Keyset pagination: no offset is used and no total count is returned, the Link header points to the next slice.
+     * Use an "after" of 0 to get the first slice.
+     * </p>
+     *
+     * @param after the id of the last author of the previous slice
+     * @param pageable the pagination information, only the size is used
      * @return the ResponseEntity with status 200 (OK) and the list of authors in body
      * @throws URISyntaxException if there is an error to generate the pagination HTTP headers
      */
     @RequestMapping(value = "/authors",
         method = RequestMethod.GET,
-        produces = MediaType.APPLICATION_JSON_VALUE)
+        params = {"after", "archived!=true"})
     @Timed
     @Transactional(readOnly = true)
-    public ResponseEntity<List<AuthorDTO>> getAllAuthors(Pageable pageable)
+    public ResponseEntity<List<AuthorDTO>> getAllAuthorsAfter(@RequestParam(value = "after") Long after, Pageable pageable)
         throws URISyntaxException {
-        log.debug("REST request to get a page of Authors");
-        Page<Author> page = authorService.findAll(pageable); 
-        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(page, "/api/authors");
-        return new ResponseEntity<>(authorMapper.authorsToAuthorDTOs(page.getContent()), headers, HttpStatus.OK);
+        log.debug("REST request to get a slice of Authors after : {}", after);
+        Slice<Author> slice = authorService.findAllAfter(after, pageable.getPageSize());
+        List<Author> authors = slice.getContent();
+        Long last = authors.isEmpty() ? null : authors.get(authors.size() - 1).getId();
+        HttpHeaders headers = PaginationUtil.generateKeysetPaginationHttpHeaders(slice, "/api/authors", "after", last);
+        return new ResponseEntity<>(authorMapper.authorsToAuthorDTOs(authors), headers, HttpStatus.OK);
+    }
+
+    /**
+     * GET  /authors?from=:from&amp;to=:to : get the authors of a time range, ordered by timestamp and id.
+     * <p>
+     * Keyset pagination: no offset is used and no total count is returned, the Link header points to the next slice
+     * with an opaque cursor.
+     * </p>
+     *
+     * @param from the start of the time range, inclusive
+     * @param to the end of the time range, exclusive
+     * @param cursor the cursor of the slice to get, from the Link header of the previous slice, or none for the first slice
+     * @param pageable the pagination information, only the size is used
+     * @return the ResponseEntity with status 200 (OK) and the list of authors in body,
+     * or with status 400 (Bad Request) if the end of the time range is missing or the cursor is not valid
+     * @throws URISyntaxException if there is an error to generate the pagination HTTP headers
+     */
+    @RequestMapping(value = "/authors",
+        method = RequestMethod.GET,
+        params = {"from", "archived!=true"})
+    @Timed
+    @Transactional(readOnly = true)
+    public ResponseEntity<List<AuthorDTO>> getAllAuthorsByTimestamp(
+        @RequestParam(value = "from") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) ZonedDateTime from,
+        @RequestParam(value = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) ZonedDateTime to,
+        @RequestParam(value = "cursor", required = false) String cursor,
+        Pageable pageable) throws URISyntaxException {
+        log.debug("REST request to get a slice of Authors from {} to {}", from, to);
+        if (to == null) {
+            throw new CustomParameterizedException("Missing end of the time range", "to");
+        }
+        ZonedDateTime afterTimestamp = null;
+        Long afterId = null;
+        if (cursor != null) {
+            try {
+                String[] position = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("_");
+                afterTimestamp = ZonedDateTime.ofInstant(Instant.parse(position[0]), ZoneId.systemDefault());
+                afterId = Long.valueOf(position[1]);
+            } catch (IllegalArgumentException | DateTimeException | ArrayIndexOutOfBoundsException e) {
+                return ResponseEntity.badRequest()
+                    .headers(HeaderUtil.createFailureAlert("author", "invalidcursor", "Invalid cursor " + cursor))
+                    .body(null);
+            }
+        }
+        Slice<Author> slice = authorService.findAllByTimestamp(from, to, afterTimestamp, afterId, pageable.getPageSize());
+        List<Author> authors = slice.getContent();
+        String nextCursor = null;
+        if (!authors.isEmpty()) {
+            Author last = authors.get(authors.size() - 1);
+            String position = last.getTimestamp().toInstant() + "_" + last.getId();
+            nextCursor = Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+        }
+        String baseUrl = UriComponentsBuilder.fromUriString("/api/authors")
+            .queryParam("from", from.toInstant())
+            .queryParam("to", to.toInstant())
+            .toUriString();
+        HttpHeaders headers = PaginationUtil.generateKeysetPaginationHttpHeaders(slice, baseUrl, "cursor", nextCursor);
+        return new ResponseEntity<>(authorMapper.authorsToAuthorDTOs(authors), headers, HttpStatus.OK);
+    }
+
+    /**
+     * GET  /authors/_export : export all the authors.
+     * <p>
+     * The authors are streamed from the database as newline-delimited JSON, one author per line, ordered by id,
+     * without DTOs.
+     * </p>
+     *
+     * @param response the HTTP response the authors are written to
+     * @throws IOException if the response couldnt be written
+     */
+    @RequestMapping(value = "/authors/_export",
+        method = RequestMethod.GET,
+        produces = APPLICATION_NDJSON_VALUE)
+    @Timed
+    public void exportAuthors(HttpServletResponse response) throws IOException {
+        log.debug("REST request to export all Authors");
+        response.setContentType(APPLICATION_NDJSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(response.getOutputStream())) {
+            generator.setRootValueSeparator(null);
+            authorService.exportAll(author -> {
+                try {
+                    AuthorStreamingMapper.writeAuthor(generator, author);
+                    generator.writeRaw('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * GET  /authors/_stats?interval=:interval&amp;from=:from&amp;to=:to : count the authors by timestamp bucket.
+     * <p>
+     * The counts of the past buckets are cached, see {@link AuthorStatsService}.
+     * </p>
+     *
+     * @param interval the interval of the buckets: "minute", "hour" (the default), "day" or "month"
+     * @param from the start of the time range, inclusive, rounded down to the interval
+     * @param to the end of the time range, exclusive, now by default
+     * @return the ResponseEntity with status 200 (OK) and the buckets in body, including the empty ones,
+     * or with status 400 (Bad Request) if the interval is unknown or the time range has too many buckets
+     */
+    @RequestMapping(value = "/authors/_stats",
+        method = RequestMethod.GET)
+    @Timed
+    public ResponseEntity<List<AuthorStatsBucketDTO>> getAuthorStats(
+        @RequestParam(value = "interval", defaultValue = "hour") String interval,
+        @RequestParam(value = "from") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) ZonedDateTime from,
+        @RequestParam(value = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) ZonedDateTime to) {
+        log.debug("REST request to count Authors by {} from {} to {}", interval, from, to);
+        StatsInterval statsInterval = parseStatsInterval(interval);
+        ZonedDateTime end = to != null ? to : ZonedDateTime.now();
+        if (authorStatsService.countBuckets(statsInterval, from, end) > MAX_STATS_BUCKETS) {
+            throw new CustomParameterizedException("Too many buckets", interval, String.valueOf(MAX_STATS_BUCKETS));
+        }
+        return new ResponseEntity<>(authorStatsService.countByInterval(statsInterval, from, end), HttpStatus.OK);
+    }
+
+    private static StatsInterval parseStatsInterval(String interval) {
+        for (StatsInterval statsInterval : StatsInterval.values()) {
+            if (statsInterval.getParameter().equals(interval)) {
+                return statsInterval;
+            }
+        }
+        throw new CustomParameterizedException("Invalid interval", interval);
+    }
+
+    /**
+     * GET  /authors/_changes : stream the changes of the authors.
+     * <p>
+     * Each change is sent as a server-sent event named "created", "updated" or "deleted", with the change in data
+     * and its sequence number as id. A client reconnecting with the Last-Event-ID header is sent the changes it
+     * missed first, or a "reset" event if they are no longer known, after which it should reload the authors.
+     * </p>
+     *
+     * @param lastEventId the id of the last event received by the client, if any
+     * @return the emitter of the events
+     */
+    @RequestMapping(value = "/authors/_changes",
+        method = RequestMethod.GET,
+        produces = TEXT_EVENT_STREAM_VALUE)
+    @Timed
+    public SseEmitter getAuthorChanges(@RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+        log.debug("REST request to stream the changes of Authors after : {}", lastEventId);
+        SseEmitter emitter = new SseEmitter(CHANGES_TIMEOUT_MILLIS);
+        AuthorChangeFeed.Subscription subscription = authorChangeFeed.subscribe(lastEventId, new SseAuthorChangeSubscriber(emitter));
+        emitter.onCompletion(subscription::cancel);
+        emitter.onTimeout(subscription::cancel);
+        return emitter;
     }
 
     /**
      * GET  /authors/:id : get the "id" author.
+     * <p>
+     * When the ETag of the author matches the If-None-Match header, the author is not sent. The archived authors are
+     * only looked for when asked.
+     * </p>
      *
      * @param id the id of the authorDTO to retrieve
-     * @return the ResponseEntity with status 200 (OK) and with body the authorDTO, or with status 404 (Not Found)
+     * @param archived whether to get the author from the archive if it was archived
+     * @param ifNoneMatch the ETags of the author known by the client, if any
+     * @return the ResponseEntity with status 200 (OK) and with body the authorDTO,
+     * or with status 304 (Not Modified) if the author is known by the client, or with status 404 (Not Found)
      */
     @RequestMapping(value = "/authors/{id}",
-        method = RequestMethod.GET,
-        produces = MediaType.APPLICATION_JSON_VALUE)
+        method = RequestMethod.GET)
     @Timed
-    public ResponseEntity<AuthorDTO> getAuthor(@PathVariable Long id) {
+    public ResponseEntity<AuthorDTO> getAuthor(@PathVariable Long id,
+        @RequestParam(value = "archived", defaultValue = "false") boolean archived,
+        @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         log.debug("REST request to get Author : {}", id);
-        AuthorDTO authorDTO = authorService.findOne(id);
-        return Optional.ofNullable(authorDTO)
-            .map(result -> new ResponseEntity<>(
-                result,
-                HttpStatus.OK))
-            .orElse(new ResponseEntity<>(HttpStatus.NOT_FOUND));
+        AuthorDTO authorDTO = authorService.findOne(id, archived);
+        if (authorDTO == null) {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        }
+        String eTag = authorETag(authorDTO);
+        if (ETagUtil.matches(ifNoneMatch, eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+        }
+        return ResponseEntity.ok().eTag(eTag).body(authorDTO);
+    }
+
+    /**
+     * SEARCH  /_search/authors?q=:query : search for the authors whose description contains any of the words of the query.
+     *
+     * @param query the query of the author search
+     * @param pageable the pagination information, the authors are ordered by relevance
+     * @return the ResponseEntity with status 200 (OK) and the list of authors in body
+     * @throws URISyntaxException if there is an error to generate the pagination HTTP headers
+     */
+    @RequestMapping(value = "/_search/authors",
+        method = RequestMethod.GET)
+    @Timed
+    @Transactional(readOnly = true)
+    public ResponseEntity<List<AuthorDTO>> searchAuthors(@RequestParam(value = "q") String query, Pageable pageable)
+        throws URISyntaxException {
+        log.debug("REST request to search for a page of Authors for query {}", query);
+        Page<Author> page = authorService.search(query, pageable);
+        HttpHeaders headers = PaginationUtil.generateSearchPaginationHttpHeaders(query, page, "/api/_search/authors");
+        return new ResponseEntity<>(authorMapper.authorsToAuthorDTOs(page.getContent()), headers, HttpStatus.OK);
     }
 
     /**
@@ -143,4 +660,155 @@ public class AuthorResource {
         return ResponseEntity.ok().headers(HeaderUtil.createEntityDeletionAlert("author", id.toString())).build();
     }
 
+    private static String authorETag(AuthorDTO authorDTO) {
+        return ETagUtil.generateETag(authorDTO.getId(), authorDTO.getVersion());
+    }
+
+    private static String pageETag(Slice<Author> page) {
+        List<Object> parts = new ArrayList<>();
+        parts.add(page instanceof Page ? ((Page<Author>) page).getTotalElements() : page.hasNext());
+        for (Author author : page.getContent()) {
+            parts.add(author.getId());
+            parts.add(author.getVersion());
+        }
+        return ETagUtil.generateETag(parts.toArray());
+    }
+
+    /**
+     * Subscriber sending the changes of the authors as server-sent events.
+     */
+    private static class SseAuthorChangeSubscriber implements AuthorChangeFeed.Subscriber {
+
+        private final SseEmitter emitter;
+
+        SseAuthorChangeSubscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        @Override
+        public void onChange(long sequence, AuthorChangeDTO change) throws IOException {
+            send(SseEmitter.event()
+                .id(String.valueOf(sequence))
+                .name(change.getType().name().toLowerCase(Locale.ENGLISH))
+                .data(change, MediaType.APPLICATION_JSON));
+        }
+
+        @Override
+        public void onReset(long sequence) throws IOException {
+            send(SseEmitter.event()
+                .id(String.valueOf(sequence))
+                .name("reset")
+                .data(sequence));
+        }
+
+        private void send(SseEmitter.SseEventBuilder event) throws IOException {
+            try {
+                emitter.send(event);
+            } catch (IOException | IllegalStateException e) {
+                emitter.completeWithError(e);
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Iterator over the authors of a JSON input, reporting the malformed authors as illegal arguments.
+     */
+    private static class NdjsonAuthorIterator implements Iterator<Author> {
+
+        private final MappingIterator<Author> authors;
+
+        NdjsonAuthorIterator(MappingIterator<Author> authors) {
+            this.authors = authors;
+        }
+
+        @Override
+        public boolean hasNext() {
+            try {
+                return authors.hasNextValue();
+            } catch (JsonProcessingException e) {
+                throw new IllegalArgumentException(e.getOriginalMessage(), e);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public Author next() {
+            try {
+                return authors.nextValue();
+            } catch (JsonProcessingException e) {
+                throw new IllegalArgumentException(e.getOriginalMessage(), e);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /**
+     * Iterator over the authors of a CSV input, reading the rows as the authors are consumed.
+     */
+    private static class CsvAuthorIterator implements Iterator<Author> {
+
+        private final CsvReader reader;
+
+        private int descriptionColumn = -1;
+
+        private int timestampColumn = -1;
+
+        private String[] row;
+
+        CsvAuthorIterator(CsvReader reader) throws IOException {
+            this.reader = reader;
+            String[] header = reader.readRow();
+            if (header != null) {
+                for (int i = 0; i < header.length; i++) {
+                    String column = header[i].trim().toLowerCase(Locale.ENGLISH);
+                    if ("description".equals(column)) {
+                        descriptionColumn = i;
+                    } else if ("timestamp".equals(column)) {
+                        timestampColumn = i;
+                    }
+                }
+            }
+            row = readRow();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return row != null;
+        }
+
+        @Override
+        public Author next() {
+            if (row == null) {
+                throw new NoSuchElementException();
+            }
+            Author author = new Author();
+            author.setDescription(field(descriptionColumn));
+            String timestamp = field(timestampColumn);
+            author.setTimestamp(timestamp == null ? null : ZonedDateTime.parse(timestamp));
+            row = readRow();
+            return author;
+        }
+
+        private String field(int column) {
+            if (column < 0 || column >= row.length || row[column].isEmpty()) {
+                return null;
+            }
+            return row[column];
+        }
+
+        private String[] readRow() {
+            try {
+                String[] next;
+                do {
+                    next = reader.readRow();
+                } while (next != null && next.length == 1 && next[0].isEmpty());
+                return next;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
 }
@@ -9,13 +9,16 @@ import com.github.mgurov.jhipsterpgrnd.repository.UserRepository;
 import com.github.mgurov.jhipsterpgrnd.security.AuthoritiesConstants;
 import com.github.mgurov.jhipsterpgrnd.service.MailService;
 import com.github.mgurov.jhipsterpgrnd.service.UserService;
+import com.github.mgurov.jhipsterpgrnd.service.util.CountMode;
 import com.github.mgurov.jhipsterpgrnd.web.rest.dto.ManagedUserDTO;
+import com.github.mgurov.jhipsterpgrnd.web.rest.util.FieldsUtil;
 import com.github.mgurov.jhipsterpgrnd.web.rest.util.HeaderUtil;
+import com.github.mgurov.jhipsterpgrnd.web.rest.util.IdempotencyKeyStore;
 import com.github.mgurov.jhipsterpgrnd.web.rest.util.PaginationUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
@@ -23,6 +26,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.annotation.Secured;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.util.UriComponentsBuilder;
 
 import javax.inject.Inject;
 import java.net.URI;
@@ -31,6 +35,9 @@ import javax.servlet.http.HttpServletRequest;
 import java.util.*;
 import java.util.stream.Collectors;
 
+import static com.github.mgurov.jhipsterpgrnd.config.JacksonConfiguration.APPLICATION_CBOR_VALUE;
+import static com.github.mgurov.jhipsterpgrnd.config.JacksonConfiguration.APPLICATION_SMILE_VALUE;
+
 /**
  * REST controller for managing users.
  *
@@ -56,7 +63,8 @@ import java.util.stream.Collectors;
  * <p>Another option would be to have a specific JPA entity graph to handle this case.</p>
  */
 @RestController
-@RequestMapping("/api")
+@RequestMapping(value = "/api",
+    produces = {MediaType.APPLICATION_JSON_VALUE, APPLICATION_SMILE_VALUE, APPLICATION_CBOR_VALUE})
 public class UserResource {
 
     private final Logger log = LoggerFactory.getLogger(UserResource.class);
@@ -74,6 +82,9 @@ public class UserResource {
     @Inject
     private UserService userService;
 
+    @Inject
+    private IdempotencyKeyStore idempotencyKeyStore;
+
     /**
      * POST  /users  : Creates a new user.
      * <p>
@@ -81,18 +92,32 @@ public class UserResource {
      * mail with an activation link.
      * The user needs to be activated on creation.
      * </p>
+     * <p>
+     * A request retried with the same Idempotency-Key header is sent the response of the first one, see
+     * {@link IdempotencyKeyStore}.
+     * </p>
      *
      * @param managedUserDTO the user to create
+     * @param idempotencyKey the key identifying the request among its retries, if any
      * @param request the HTTP request
-     * @return the ResponseEntity with status 201 (Created) and with body the new user, or with status 400 (Bad Request) if the login or email is already in use
+     * @return the ResponseEntity with status 201 (Created) and with body the new user, or with status 400 (Bad Request) if the login or email is already in use,
+     * or with status 409 (Conflict) if a request with the same Idempotency-Key is in progress, or with status 422
+     * (Unprocessable Entity) if the Idempotency-Key was used for another user
      * @throws URISyntaxException if the Location URI syntaxt is incorrect
      */
     @RequestMapping(value = "/users",
-        method = RequestMethod.POST,
-        produces = MediaType.APPLICATION_JSON_VALUE)
+        method = RequestMethod.POST)
     @Timed
     @Secured(AuthoritiesConstants.ADMIN)
-    public ResponseEntity<?> createUser(@RequestBody ManagedUserDTO managedUserDTO, HttpServletRequest request) throws URISyntaxException {
+    public ResponseEntity<ManagedUserDTO> createUser(@RequestBody ManagedUserDTO managedUserDTO,
+        @RequestHeader(value = IdempotencyKeyStore.IDEMPOTENCY_KEY, required = false) String idempotencyKey,
+        HttpServletRequest request) throws URISyntaxException {
+        return idempotencyKeyStore.execute(idempotencyKey, "POST /api/users", managedUserDTO,
+            () -> createUser(managedUserDTO, request));
+    }
+
+    private ResponseEntity<ManagedUserDTO> createUser(ManagedUserDTO managedUserDTO, HttpServletRequest request)
+        throws URISyntaxException {
         log.debug("REST request to save User : {}", managedUserDTO);
 
         //Lowercase the user login before comparing with database
@@ -115,7 +140,7 @@ public class UserResource {
             mailService.sendCreationEmail(newUser, baseUrl);
             return ResponseEntity.created(new URI("/api/users/" + newUser.getLogin()))
                 .headers(HeaderUtil.createAlert( "A user is created with identifier " + newUser.getLogin(), newUser.getLogin()))
-                .body(newUser);
+                .body(new ManagedUserDTO(newUser));
         }
     }
 
@@ -128,8 +153,7 @@ public class UserResource {
      * or with status 500 (Internal Server Error) if the user couldnt be updated
      */
     @RequestMapping(value = "/users",
-        method = RequestMethod.PUT,
-        produces = MediaType.APPLICATION_JSON_VALUE)
+        method = RequestMethod.PUT)
     @Timed
     @Transactional
     @Secured(AuthoritiesConstants.ADMIN)
@@ -170,24 +194,54 @@ public class UserResource {
      * GET  /users : get all users.
      * 
      * @param pageable the pagination information
+     * @param count how to count the users: "true" (the default, cached), "estimated" or "false"
      * @return the ResponseEntity with status 200 (OK) and with body all users
      * @throws URISyntaxException if the pagination headers couldnt be generated
      */
     @RequestMapping(value = "/users",
-        method = RequestMethod.GET,
-        produces = MediaType.APPLICATION_JSON_VALUE)
+        method = RequestMethod.GET)
     @Timed
     @Transactional(readOnly = true)
-    public ResponseEntity<List<ManagedUserDTO>> getAllUsers(Pageable pageable)
+    public ResponseEntity<List<ManagedUserDTO>> getAllUsers(Pageable pageable,
+        @RequestParam(value = "count", required = false) String count)
         throws URISyntaxException {
-        Page<User> page = userRepository.findAll(pageable);
+        CountMode countMode = PaginationUtil.parseCountMode(count);
+        Slice<User> page = userService.findAll(pageable, countMode);
         List<ManagedUserDTO> managedUserDTOs = page.getContent().stream()
             .map(ManagedUserDTO::new)
             .collect(Collectors.toList());
-        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(page, "/api/users");
+        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(page, "/api/users", countMode);
         return new ResponseEntity<>(managedUserDTOs, headers, HttpStatus.OK);
     }
 
+    /**
+     * GET  /users?fields=:fields : get some fields of all users.
+     * <p>
+     * Only the columns of the fields are read from the database, the authorities only if they are asked for.
+     * </p>
+     *
+     * @param fields the comma separated fields to get, among the fields of the users
+     * @param pageable the pagination information
+     * @param count how to count the users: "true" (the default, cached), "estimated" or "false"
+     * @return the ResponseEntity with status 200 (OK) and with body the fields of all users,
+     * or with status 400 (Bad Request) if a field is unknown
+     * @throws URISyntaxException if the pagination headers couldnt be generated
+     */
+    @RequestMapping(value = "/users",
+        method = RequestMethod.GET,
+        params = "fields")
+    @Timed
+    public ResponseEntity<List<Map<String, Object>>> getAllUserFields(@RequestParam(value = "fields") String fields,
+        Pageable pageable, @RequestParam(value = "count", required = false) String count)
+        throws URISyntaxException {
+        CountMode countMode = PaginationUtil.parseCountMode(count);
+        Slice<Map<String, Object>> page = userService.findAll(pageable, countMode,
+            FieldsUtil.parseFields(fields, UserService.FIELDS));
+        String baseUrl = UriComponentsBuilder.fromPath("/api/users").queryParam("fields", fields).toUriString();
+        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(page, baseUrl, countMode);
+        return new ResponseEntity<>(page.getContent(), headers, HttpStatus.OK);
+    }
+
     /**
      * GET  /users/:login : get the "login" user.
      *
@@ -195,8 +249,7 @@ public class UserResource {
      * @return the ResponseEntity with status 200 (OK) and with body the "login" user, or with status 404 (Not Found)
      */
     @RequestMapping(value = "/users/{login:" + Constants.LOGIN_REGEX + "}",
-        method = RequestMethod.GET,
-        produces = MediaType.APPLICATION_JSON_VALUE)
+        method = RequestMethod.GET)
     @Timed
     public ResponseEntity<ManagedUserDTO> getUser(@PathVariable String login) {
         log.debug("REST request to get User : {}", login);
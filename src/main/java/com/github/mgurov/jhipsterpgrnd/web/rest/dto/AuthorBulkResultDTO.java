@@ -0,0 +1,69 @@
+package com.github.mgurov.jhipsterpgrnd.web.rest.dto;
+
+import java.io.Serializable;
+
+/**
+ * A DTO for the result of one item of an Author bulk save.
+ */
+public class AuthorBulkResultDTO implements Serializable {
+
+    private int index;
+
+    private Long id;
+
+    private int status;
+
+    private String error;
+
+    public AuthorBulkResultDTO() {
+    }
+
+    public AuthorBulkResultDTO(int index, Long id, int status, String error) {
+        this.index = index;
+        this.id = id;
+        this.status = status;
+        this.error = error;
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public void setIndex(int index) {
+        this.index = index;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    public void setStatus(int status) {
+        this.status = status;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+
+    @Override
+    public String toString() {
+        return "AuthorBulkResultDTO{" +
+            "index=" + index +
+            ", id=" + id +
+            ", status=" + status +
+            ", error='" + error + "'" +
+            '}';
+    }
+}
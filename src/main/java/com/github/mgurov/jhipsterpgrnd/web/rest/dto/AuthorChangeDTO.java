@@ -0,0 +1,61 @@
+package com.github.mgurov.jhipsterpgrnd.web.rest.dto;
+
+import java.io.Serializable;
+
+/**
+ * A DTO for a change of an Author, sent by the Author change feed.
+ */
+public class AuthorChangeDTO implements Serializable {
+
+    public enum Type {
+        CREATED, UPDATED, DELETED, ARCHIVED
+    }
+
+    private Type type;
+
+    private Long id;
+
+    private AuthorDTO author;
+
+    public AuthorChangeDTO() {
+    }
+
+    public AuthorChangeDTO(Type type, Long id, AuthorDTO author) {
+        this.type = type;
+        this.id = id;
+        this.author = author;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public void setType(Type type) {
+        this.type = type;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public AuthorDTO getAuthor() {
+        return author;
+    }
+
+    public void setAuthor(AuthorDTO author) {
+        this.author = author;
+    }
+
+    @Override
+    public String toString() {
+        return "AuthorChangeDTO{" +
+            "type=" + type +
+            ", id=" + id +
+            ", author=" + author +
+            '}';
+    }
+}
@@ -16,6 +16,7 @@ public class AuthorDTO implements Serializable {
 
     private ZonedDateTime timestamp;
 
+    private Long version;
 
     public Long getId() {
         return id;
@@ -38,6 +39,13 @@ public class AuthorDTO implements Serializable {
     public void setTimestamp(ZonedDateTime timestamp) {
         this.timestamp = timestamp;
     }
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
 
     @Override
     public boolean equals(Object o) {
@@ -66,6 +74,7 @@ public class AuthorDTO implements Serializable {
             "id=" + id +
             ", description='" + description + "'" +
             ", timestamp='" + timestamp + "'" +
+            ", version='" + version + "'" +
             '}';
     }
 }
@@ -0,0 +1,46 @@
+package com.github.mgurov.jhipsterpgrnd.web.rest.dto;
+
+import java.io.Serializable;
+import java.time.ZonedDateTime;
+
+/**
+ * A DTO for a bucket of the Author histogram: the number of authors whose timestamp is in the bucket.
+ */
+public class AuthorStatsBucketDTO implements Serializable {
+
+    private ZonedDateTime start;
+
+    private long count;
+
+    public AuthorStatsBucketDTO() {
+    }
+
+    public AuthorStatsBucketDTO(ZonedDateTime start, long count) {
+        this.start = start;
+        this.count = count;
+    }
+
+    public ZonedDateTime getStart() {
+        return start;
+    }
+
+    public void setStart(ZonedDateTime start) {
+        this.start = start;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public void setCount(long count) {
+        this.count = count;
+    }
+
+    @Override
+    public String toString() {
+        return "AuthorStatsBucketDTO{" +
+            "start=" + start +
+            ", count=" + count +
+            '}';
+    }
+}
@@ -3,6 +3,7 @@ package com.github.mgurov.jhipsterpgrnd.web.rest.errors;
 public final class ErrorConstants {
 
     public static final String ERR_CONCURRENCY_FAILURE = "error.concurrencyFailure";
+    public static final String ERR_IDEMPOTENCY_KEY_MISMATCH = "error.idempotencyKeyMismatch";
     public static final String ERR_ACCESS_DENIED = "error.accessDenied";
     public static final String ERR_VALIDATION = "error.validation";
     public static final String ERR_METHOD_NOT_SUPPORTED = "error.methodNotSupported";
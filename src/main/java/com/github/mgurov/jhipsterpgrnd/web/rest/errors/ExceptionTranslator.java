@@ -27,6 +27,13 @@ public class ExceptionTranslator {
         return new ErrorDTO(ErrorConstants.ERR_CONCURRENCY_FAILURE);
     }
 
+    @ExceptionHandler(IdempotencyKeyMismatchException.class)
+    @ResponseStatus(HttpStatus.UNPROCESSABLE_ENTITY)
+    @ResponseBody
+    public ErrorDTO processIdempotencyKeyMismatch(IdempotencyKeyMismatchException ex) {
+        return new ErrorDTO(ErrorConstants.ERR_IDEMPOTENCY_KEY_MISMATCH, ex.getMessage());
+    }
+
     @ExceptionHandler(MethodArgumentNotValidException.class)
     @ResponseStatus(HttpStatus.BAD_REQUEST)
     @ResponseBody
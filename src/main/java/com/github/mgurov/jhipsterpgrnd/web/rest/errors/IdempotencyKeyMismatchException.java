@@ -0,0 +1,14 @@
+package com.github.mgurov.jhipsterpgrnd.web.rest.errors;
+
+/**
+ * Thrown when an Idempotency-Key is reused for a request with a different payload than the one it was first used
+ * for, translated to 422 (Unprocessable Entity).
+ */
+public class IdempotencyKeyMismatchException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public IdempotencyKeyMismatchException(String message) {
+        super(message);
+    }
+}
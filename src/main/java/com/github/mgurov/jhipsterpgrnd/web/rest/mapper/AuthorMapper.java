@@ -7,7 +7,7 @@ import org.mapstruct.*;
 import java.util.List;
 
 /**
- * Mapper for the entity Author and its DTO AuthorDTO.
+ * Mapper for the entity Author and its DTO AuthorDTO, the archived authors being mapped to AuthorDTO too.
  */
 @Mapper(componentModel = "spring", uses = {})
 public interface AuthorMapper {
@@ -19,4 +19,8 @@ public interface AuthorMapper {
     Author authorDTOToAuthor(AuthorDTO authorDTO);
 
     List<Author> authorDTOsToAuthors(List<AuthorDTO> authorDTOs);
+
+    AuthorDTO archivedAuthorToAuthorDTO(ArchivedAuthor archivedAuthor);
+
+    List<AuthorDTO> archivedAuthorsToAuthorDTOs(List<ArchivedAuthor> archivedAuthors);
 }
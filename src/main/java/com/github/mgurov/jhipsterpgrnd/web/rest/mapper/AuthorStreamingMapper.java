@@ -0,0 +1,88 @@
+package com.github.mgurov.jhipsterpgrnd.web.rest.mapper;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonSerializable;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.jsontype.TypeSerializer;
+import com.github.mgurov.jhipsterpgrnd.domain.Author;
+import com.github.mgurov.jhipsterpgrnd.domain.util.JSR310DateTimeSerializer;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Mapper writing the entity Author straight to a JSON generator, as its DTO AuthorDTO would be written.
+ *
+ * <p>
+ * This spares the DTOs and their lists, for the endpoints sending many authors. It works with any format of
+ * JSON generator, and is to be kept in sync with {@link AuthorMapper}.
+ * </p>
+ */
+public final class AuthorStreamingMapper {
+
+    private AuthorStreamingMapper() {
+    }
+
+    /**
+     * Write an author as an AuthorDTO.
+     *
+     * @param generator the generator to write to
+     * @param author the entity to write
+     * @throws IOException if the author couldnt be written
+     */
+    public static void writeAuthor(JsonGenerator generator, Author author) throws IOException {
+        generator.writeStartObject();
+        writeNumberField(generator, "id", author.getId());
+        generator.writeStringField("description", author.getDescription());
+        generator.writeFieldName("timestamp");
+        if (author.getTimestamp() == null) {
+            generator.writeNull();
+        } else {
+            JSR310DateTimeSerializer.INSTANCE.serialize(author.getTimestamp(), generator, null);
+        }
+        writeNumberField(generator, "version", author.getVersion());
+        generator.writeEndObject();
+    }
+
+    /**
+     * Wrap authors to be written as a list of AuthorDTOs, by an object mapper or a message converter.
+     *
+     * @param authors the entities to write
+     * @return the body to write
+     */
+    public static JsonSerializable authorsToAuthorDTOs(List<Author> authors) {
+        return new AuthorList(authors);
+    }
+
+    private static void writeNumberField(JsonGenerator generator, String name, Long value) throws IOException {
+        if (value == null) {
+            generator.writeNullField(name);
+        } else {
+            generator.writeNumberField(name, value);
+        }
+    }
+
+    private static final class AuthorList implements JsonSerializable {
+
+        private final List<Author> authors;
+
+        private AuthorList(List<Author> authors) {
+            this.authors = authors;
+        }
+
+        @Override
+        public void serialize(JsonGenerator generator, SerializerProvider serializers) throws IOException {
+            generator.writeStartArray(authors.size());
+            for (Author author : authors) {
+                writeAuthor(generator, author);
+            }
+            generator.writeEndArray();
+        }
+
+        @Override
+        public void serializeWithType(JsonGenerator generator, SerializerProvider serializers, TypeSerializer typeSer)
+            throws IOException {
+            serialize(generator, serializers);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.github.mgurov.jhipsterpgrnd.web.rest.util;
+
+import org.springframework.util.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Utility class for HTTP entity tags and conditional requests.
+ */
+public final class ETagUtil {
+
+    private ETagUtil() {
+    }
+
+    /**
+     * Generate a strong entity tag, the hash of the given parts of a representation.
+     *
+     * @param parts the parts of the representation, may be null
+     * @return the quoted entity tag
+     */
+    public static String generateETag(Object... parts) {
+        StringBuilder representation = new StringBuilder();
+        for (Object part : parts) {
+            representation.append(part).append('\u0000');
+        }
+        return "\"" + DigestUtils.md5DigestAsHex(representation.toString().getBytes(StandardCharsets.UTF_8)) + "\"";
+    }
+
+    /**
+     * Check whether an entity tag matches one of the entity tags of an If-None-Match header,
+     * using the weak comparison of <a href="https://tools.ietf.org/html/rfc7232#section-2.3.2">RFC 7232</a>.
+     *
+     * @param header the If-None-Match header, may be null
+     * @param eTag the quoted entity tag of the current representation
+     * @return true if the header is "*" or lists the entity tag
+     */
+    public static boolean matches(String header, String eTag) {
+        return matches(header, eTag, true);
+    }
+
+    /**
+     * Check whether an entity tag matches one of the entity tags of an If-Match header,
+     * using the strong comparison of <a href="https://tools.ietf.org/html/rfc7232#section-2.3.2">RFC 7232</a>.
+     *
+     * @param header the If-Match header, may be null
+     * @param eTag the quoted entity tag of the current representation
+     * @return true if the header is "*" or lists the entity tag as a strong one
+     */
+    public static boolean matchesStrongly(String header, String eTag) {
+        return matches(header, eTag, false);
+    }
+
+    private static boolean matches(String header, String eTag, boolean weak) {
+        if (header == null) {
+            return false;
+        }
+        for (String candidate : header.split(",")) {
+            candidate = candidate.trim();
+            if (candidate.startsWith("W/")) {
+                if (!weak) {
+                    continue;
+                }
+                candidate = candidate.substring(2);
+            }
+            if ("*".equals(candidate) || candidate.equals(eTag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,37 @@
+package com.github.mgurov.jhipsterpgrnd.web.rest.util;
+
+import com.github.mgurov.jhipsterpgrnd.web.rest.errors.CustomParameterizedException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Utility class for the sparse fieldsets of the listings, selected by the "fields" request parameter.
+ */
+public final class FieldsUtil {
+
+    private FieldsUtil() {
+    }
+
+    /**
+     * Parse the "fields" request parameter of a listing.
+     *
+     * @param fields the comma separated names of the fields
+     * @param allowedFields the names of the fields of the listing
+     * @return the distinct names of the fields, in the order of the parameter
+     */
+    public static List<String> parseFields(String fields, Set<String> allowedFields) {
+        List<String> result = new ArrayList<>();
+        for (String field : fields.split(",")) {
+            field = field.trim();
+            if (!allowedFields.contains(field)) {
+                throw new CustomParameterizedException("Invalid field", field);
+            }
+            if (!result.contains(field)) {
+                result.add(field);
+            }
+        }
+        return result;
+    }
+}
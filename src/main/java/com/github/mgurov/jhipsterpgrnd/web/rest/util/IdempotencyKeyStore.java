@@ -0,0 +1,152 @@
+package com.github.mgurov.jhipsterpgrnd.web.rest.util;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.mgurov.jhipsterpgrnd.security.SecurityUtils;
+import com.github.mgurov.jhipsterpgrnd.web.rest.errors.IdempotencyKeyMismatchException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.inject.Inject;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+
+/**
+ * Store of the responses of the requests sent with an Idempotency-Key header, so that a client retrying a request
+ * whose response it did not get is sent the same response, without executing the request again.
+ *
+ * <p>
+ * The responses are kept in a bounded cache, for the time to live configured by "jhipster.http.idempotency".
+ * The keys are scoped by user and endpoint. The responses of the failed requests, with status 5xx or an exception,
+ * are not kept, so that they can be retried.
+ * </p>
+ * <p>
+ * A response is kept with the SHA-256 hash of the JSON of its request payload: a key reused with another payload is
+ * rejected rather than sent the response of the first payload.
+ * </p>
+ */
+@Component
+public class IdempotencyKeyStore {
+
+    public static final String CACHE_NAME = "idempotencyKeys";
+
+    public static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+
+    /** Header of the responses sent again */
+    public static final String IDEMPOTENT_REPLAYED = "Idempotent-Replayed";
+
+    private static final Object IN_PROGRESS = new Object();
+
+    private final Logger log = LoggerFactory.getLogger(IdempotencyKeyStore.class);
+
+    @Inject
+    private CacheManager cacheManager;
+
+    @Inject
+    private ObjectMapper objectMapper;
+
+    private Cache responses;
+
+    @PostConstruct
+    public void init() {
+        responses = cacheManager.getCache(CACHE_NAME);
+    }
+
+    /**
+     * Execute a request, unless it was already executed with the same idempotency key.
+     *
+     * @param idempotencyKey the Idempotency-Key header of the request, if any
+     * @param endpoint the endpoint of the request, for instance "POST /api/authors"
+     * @param payload the payload of the request, compared by hash with the one of the previous request
+     * @param request the request
+     * @param <T> the type of the response body
+     * @param <E> the type of the exception thrown by the request
+     * @return the response of the request, or the stored response of the previous request with the same key
+     * @throws E if the request fails
+     * @throws ConcurrencyFailureException if a request with the same key is still executing
+     * @throws IdempotencyKeyMismatchException if the previous request with the same key had another payload
+     */
+    @SuppressWarnings("unchecked")
+    public <T, E extends Exception> ResponseEntity<T> execute(String idempotencyKey, String endpoint, Object payload,
+        Request<T, E> request) throws E {
+        if (idempotencyKey == null) {
+            return request.execute();
+        }
+        String login = SecurityUtils.getCurrentUserLogin();
+        String key = (login != null ? login : "") + " " + endpoint + " " + idempotencyKey;
+        byte[] payloadHash = hash(payload);
+        Cache.ValueWrapper stored = responses.putIfAbsent(key, IN_PROGRESS);
+        if (stored != null && stored.get() == IN_PROGRESS) {
+            throw new ConcurrencyFailureException("A request with the Idempotency-Key " + idempotencyKey + " is in progress");
+        }
+        if (stored != null) {
+            StoredResponse storedResponse = (StoredResponse) stored.get();
+            if (!Arrays.equals(storedResponse.payloadHash, payloadHash)) {
+                throw new IdempotencyKeyMismatchException("The Idempotency-Key " + idempotencyKey +
+                    " was used for a request with another payload");
+            }
+            log.debug("Replaying the response of {} for the Idempotency-Key {}", endpoint, idempotencyKey);
+            ResponseEntity<T> response = (ResponseEntity<T>) storedResponse.response;
+            HttpHeaders headers = new HttpHeaders();
+            headers.putAll(response.getHeaders());
+            headers.set(IDEMPOTENT_REPLAYED, "true");
+            return new ResponseEntity<>(response.getBody(), headers, response.getStatusCode());
+        }
+        ResponseEntity<T> response;
+        try {
+            response = request.execute();
+        } catch (Exception | Error e) {
+            responses.evict(key);
+            throw e;
+        }
+        if (response.getStatusCode().is5xxServerError()) {
+            responses.evict(key);
+        } else {
+            responses.put(key, new StoredResponse(payloadHash, response));
+        }
+        return response;
+    }
+
+    private byte[] hash(Object payload) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(objectMapper.writeValueAsBytes(payload));
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Could not hash the payload of the request", e);
+        }
+    }
+
+    /**
+     * A response, with the hash of the payload of its request.
+     */
+    private static final class StoredResponse {
+
+        private final byte[] payloadHash;
+
+        private final ResponseEntity<?> response;
+
+        private StoredResponse(byte[] payloadHash, ResponseEntity<?> response) {
+            this.payloadHash = payloadHash;
+            this.response = response;
+        }
+    }
+
+    /**
+     * A request, returning its response.
+     *
+     * @param <T> the type of the response body
+     * @param <E> the type of the exception thrown by the request
+     */
+    @FunctionalInterface
+    public interface Request<T, E extends Exception> {
+
+        ResponseEntity<T> execute() throws E;
+    }
+}
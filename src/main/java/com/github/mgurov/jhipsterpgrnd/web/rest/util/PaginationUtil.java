@@ -1,6 +1,9 @@
 package com.github.mgurov.jhipsterpgrnd.web.rest.util;
 
+import com.github.mgurov.jhipsterpgrnd.service.util.CountMode;
+import com.github.mgurov.jhipsterpgrnd.web.rest.errors.CustomParameterizedException;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.HttpHeaders;
 import org.springframework.web.util.UriComponentsBuilder;
 
@@ -40,6 +43,94 @@ public class PaginationUtil {
         return headers;
     }
 
+    /**
+     * Generate the pagination headers of a listing in a given count mode.
+     *
+     * <p>
+     * A counted page gets the usual headers. A slice without a count gets no X-Total-Count and no "last" link. The
+     * links keep the count mode.
+     *
+     * @param slice the current slice, a page if it was counted
+     * @param baseUrl the url of the listing
+     * @param countMode the count mode of the listing
+     * @return the pagination HTTP headers
+     * @throws URISyntaxException if the Link URI syntax is incorrect
+     */
+    public static HttpHeaders generatePaginationHttpHeaders(Slice<?> slice, String baseUrl, CountMode countMode)
+        throws URISyntaxException {
+
+        if (countMode != CountMode.EXACT) {
+            baseUrl = UriComponentsBuilder.fromUriString(baseUrl).queryParam("count", countMode.getParameter()).toUriString();
+        }
+        if (slice instanceof Page) {
+            return generatePaginationHttpHeaders((Page<?>) slice, baseUrl);
+        }
+        HttpHeaders headers = new HttpHeaders();
+        String link = "";
+        if (slice.hasNext()) {
+            link = "<" + generateUri(baseUrl, slice.getNumber() + 1, slice.getSize()) + ">; rel=\"next\",";
+        }
+        if (slice.hasPrevious()) {
+            link += "<" + generateUri(baseUrl, slice.getNumber() - 1, slice.getSize()) + ">; rel=\"prev\",";
+        }
+        link += "<" + generateUri(baseUrl, 0, slice.getSize()) + ">; rel=\"first\"";
+        headers.add(HttpHeaders.LINK, link);
+        return headers;
+    }
+
+    /**
+     * Parse the "count" request parameter of a listing.
+     *
+     * @param count the parameter: "true" (the default), "estimated" or "false"
+     * @return the count mode
+     */
+    public static CountMode parseCountMode(String count) {
+        if (count == null) {
+            return CountMode.EXACT;
+        }
+        for (CountMode countMode : CountMode.values()) {
+            if (countMode.getParameter().equals(count)) {
+                return countMode;
+            }
+        }
+        throw new CustomParameterizedException("Invalid count mode", count);
+    }
+
+    public static HttpHeaders generateSearchPaginationHttpHeaders(String query, Page<?> page, String baseUrl)
+        throws URISyntaxException {
+
+        String escapedQuery = UriComponentsBuilder.newInstance().queryParam("q", query).build().encode().getQuery();
+        return generatePaginationHttpHeaders(page, baseUrl + "?" + escapedQuery);
+    }
+
+    /**
+     * Generate the Link header of a keyset (seek) paginated listing.
+     *
+     * <p>
+     * There is no total count and no "last" link: only a "next" link pointing after the last element
+     * of the slice, when there is one.
+     *
+     * @param slice the current slice
+     * @param baseUrl the url of the listing
+     * @param cursorParam the name of the query parameter carrying the cursor
+     * @param cursor the cursor of the last element of the slice
+     * @return the pagination HTTP headers
+     * @throws URISyntaxException if the Link URI syntax is incorrect
+     */
+    public static HttpHeaders generateKeysetPaginationHttpHeaders(Slice<?> slice, String baseUrl, String cursorParam,
+        Object cursor) throws URISyntaxException {
+
+        HttpHeaders headers = new HttpHeaders();
+        if (slice.hasNext() && cursor != null) {
+            String link = "<" + UriComponentsBuilder.fromUriString(baseUrl)
+                .queryParam(cursorParam, cursor)
+                .queryParam("size", slice.getSize())
+                .toUriString() + ">; rel=\"next\"";
+            headers.add(HttpHeaders.LINK, link);
+        }
+        return headers;
+    }
+
     private static String generateUri(String baseUrl, int page, int size) throws URISyntaxException {
         return UriComponentsBuilder.fromUriString(baseUrl).queryParam("page", page).queryParam("size", size).toUriString();
     }
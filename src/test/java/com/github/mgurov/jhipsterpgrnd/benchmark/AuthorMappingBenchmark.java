@@ -0,0 +1,130 @@
+package com.github.mgurov.jhipsterpgrnd.benchmark;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.mgurov.jhipsterpgrnd.config.JacksonConfiguration;
+import com.github.mgurov.jhipsterpgrnd.domain.Author;
+import com.github.mgurov.jhipsterpgrnd.domain.Authority;
+import com.github.mgurov.jhipsterpgrnd.domain.User;
+import com.github.mgurov.jhipsterpgrnd.web.rest.dto.AuthorDTO;
+import com.github.mgurov.jhipsterpgrnd.web.rest.dto.UserDTO;
+import com.github.mgurov.jhipsterpgrnd.web.rest.mapper.AuthorMapper;
+import com.github.mgurov.jhipsterpgrnd.web.rest.mapper.AuthorMapperImpl;
+import com.github.mgurov.jhipsterpgrnd.web.rest.mapper.AuthorStreamingMapper;
+import com.github.mgurov.jhipsterpgrnd.web.rest.mapper.UserMapper;
+import com.github.mgurov.jhipsterpgrnd.web.rest.mapper.UserMapperImpl;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of the cost per element of writing the entities as JSON: mapping them to DTOs then writing the DTOs,
+ * or writing the authors straight to the JSON generator with {@link AuthorStreamingMapper}.
+ *
+ * <p>
+ * The JSON is written to a discarding stream, so that only the mapping and serialization are measured. Run with:
+ * <pre>
+ * ./mvnw test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=org.openjdk.jmh.Main \
+ *     -Dexec.args=AuthorMappingBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@OperationsPerInvocation(AuthorMappingBenchmark.PAGE_SIZE)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+public class AuthorMappingBenchmark {
+
+    static final int PAGE_SIZE = 100;
+
+    private static final OutputStream DISCARDING_STREAM = new OutputStream() {
+        @Override
+        public void write(int b) {
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+        }
+    };
+
+    private final AuthorMapper authorMapper = new AuthorMapperImpl();
+
+    private final UserMapper userMapper = new UserMapperImpl();
+
+    private ObjectMapper objectMapper;
+
+    private List<Author> authors;
+
+    private List<User> users;
+
+    @Setup
+    public void setUp() {
+        objectMapper = new JacksonConfiguration().jackson2ObjectMapperBuilder().build();
+        Authority authority = new Authority();
+        authority.setName("ROLE_USER");
+        ZonedDateTime now = ZonedDateTime.now();
+        authors = new ArrayList<>(PAGE_SIZE);
+        users = new ArrayList<>(PAGE_SIZE);
+        for (long i = 0; i < PAGE_SIZE; i++) {
+            Author author = new Author();
+            author.setId(1000 + i);
+            author.setDescription("Author " + i + " writes about performance, caching and databases");
+            author.setTimestamp(now.minusMinutes(i));
+            author.setVersion(i % 3);
+            authors.add(author);
+            User user = new User();
+            user.setId(1000 + i);
+            user.setLogin("user" + i);
+            user.setFirstName("First" + i);
+            user.setLastName("Last" + i);
+            user.setEmail("user" + i + "@localhost");
+            user.setActivated(true);
+            user.setLangKey("en");
+            user.setAuthorities(new HashSet<>(Arrays.asList(authority)));
+            users.add(user);
+        }
+    }
+
+    @Benchmark
+    public List<AuthorDTO> mapAuthors() {
+        return authorMapper.authorsToAuthorDTOs(authors);
+    }
+
+    @Benchmark
+    public void writeAuthorsThroughDTOs() throws IOException {
+        objectMapper.writeValue(DISCARDING_STREAM, authorMapper.authorsToAuthorDTOs(authors));
+    }
+
+    @Benchmark
+    public void writeAuthorsStreaming() throws IOException {
+        objectMapper.writeValue(DISCARDING_STREAM, AuthorStreamingMapper.authorsToAuthorDTOs(authors));
+    }
+
+    @Benchmark
+    public void writeAuthorsToGenerator() throws IOException {
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(DISCARDING_STREAM)) {
+            for (Author author : authors) {
+                AuthorStreamingMapper.writeAuthor(generator, author);
+            }
+        }
+    }
+
+    @Benchmark
+    public List<UserDTO> mapUsers() {
+        return userMapper.usersToUserDTOs(users);
+    }
+
+    @Benchmark
+    public void writeUsersThroughDTOs() throws IOException {
+        objectMapper.writeValue(DISCARDING_STREAM, userMapper.usersToUserDTOs(users));
+    }
+}
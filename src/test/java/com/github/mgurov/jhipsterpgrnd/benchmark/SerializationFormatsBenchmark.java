@@ -0,0 +1,109 @@
+package com.github.mgurov.jhipsterpgrnd.benchmark;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.mgurov.jhipsterpgrnd.config.JacksonConfiguration;
+import com.github.mgurov.jhipsterpgrnd.web.rest.dto.AuthorDTO;
+import com.github.mgurov.jhipsterpgrnd.web.rest.dto.ManagedUserDTO;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of the serialization formats of the REST API: JSON, Smile and CBOR, on a default page (20 elements)
+ * of the author and user listings.
+ *
+ * <p>
+ * The payload sizes are printed when a format is set up. Run with:
+ * <pre>
+ * ./mvnw test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=org.openjdk.jmh.Main \
+ *     -Dexec.args=SerializationFormatsBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+public class SerializationFormatsBenchmark {
+
+    private static final int PAGE_SIZE = 20;
+
+    private static final TypeReference<List<AuthorDTO>> AUTHORS = new TypeReference<List<AuthorDTO>>() { };
+
+    private static final TypeReference<List<ManagedUserDTO>> USERS = new TypeReference<List<ManagedUserDTO>>() { };
+
+    @Param({"json", "smile", "cbor"})
+    public String format;
+
+    private ObjectMapper objectMapper;
+
+    private List<AuthorDTO> authors;
+
+    private List<ManagedUserDTO> users;
+
+    private byte[] authorsPayload;
+
+    private byte[] usersPayload;
+
+    @Setup
+    public void setUp() throws IOException {
+        Jackson2ObjectMapperBuilder builder = new JacksonConfiguration().jackson2ObjectMapperBuilder();
+        switch (format) {
+            case "smile":
+                objectMapper = JacksonConfiguration.smileObjectMapper(builder);
+                break;
+            case "cbor":
+                objectMapper = JacksonConfiguration.cborObjectMapper(builder);
+                break;
+            default:
+                objectMapper = builder.build();
+        }
+
+        ZonedDateTime now = ZonedDateTime.now();
+        authors = new ArrayList<>(PAGE_SIZE);
+        users = new ArrayList<>(PAGE_SIZE);
+        for (long i = 0; i < PAGE_SIZE; i++) {
+            AuthorDTO author = new AuthorDTO();
+            author.setId(1000 + i);
+            author.setDescription("Author " + i + " writes about performance, caching and databases");
+            author.setTimestamp(now.minusMinutes(i));
+            author.setVersion(i % 3);
+            authors.add(author);
+            users.add(new ManagedUserDTO(1000 + i, "user" + i, null, "First" + i, "Last" + i, "user" + i + "@localhost",
+                true, "en", new HashSet<>(Arrays.asList("ROLE_USER", "ROLE_ADMIN")), now.minusDays(i), "system", now));
+        }
+        authorsPayload = objectMapper.writeValueAsBytes(authors);
+        usersPayload = objectMapper.writeValueAsBytes(users);
+        System.out.printf("%n%s payloads: %d authors in %d bytes, %d users in %d bytes%n",
+            format, PAGE_SIZE, authorsPayload.length, PAGE_SIZE, usersPayload.length);
+    }
+
+    @Benchmark
+    public byte[] writeAuthors() throws IOException {
+        return objectMapper.writeValueAsBytes(authors);
+    }
+
+    @Benchmark
+    public List<AuthorDTO> readAuthors() throws IOException {
+        return objectMapper.readValue(authorsPayload, AUTHORS);
+    }
+
+    @Benchmark
+    public byte[] writeUsers() throws IOException {
+        return objectMapper.writeValueAsBytes(users);
+    }
+
+    @Benchmark
+    public List<ManagedUserDTO> readUsers() throws IOException {
+        return objectMapper.readValue(usersPayload, USERS);
+    }
+}
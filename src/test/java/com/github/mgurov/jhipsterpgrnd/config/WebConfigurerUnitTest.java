@@ -0,0 +1,84 @@
+package com.github.mgurov.jhipsterpgrnd.config;
+
+import com.codahale.metrics.MetricRegistry;
+import com.github.mgurov.jhipsterpgrnd.web.filter.StatementCountingFilter;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.config.YamlPropertiesFactoryBean;
+import org.springframework.boot.bind.PropertiesConfigurationFactory;
+import org.springframework.core.env.PropertiesPropertySource;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.Filter;
+import javax.servlet.ServletContext;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Test class for the WebConfigurer, with the production configuration.
+ *
+ * @see WebConfigurer
+ */
+public class WebConfigurerUnitTest {
+
+    private MetricRegistry metricRegistry;
+
+    private JHipsterProperties jHipsterProperties;
+
+    private WebConfigurer webConfigurer;
+
+    @Before
+    public void setup() throws Exception {
+        YamlPropertiesFactoryBean yaml = new YamlPropertiesFactoryBean();
+        yaml.setResources(new ClassPathResource("config/application-prod.yml"));
+        MockEnvironment env = new MockEnvironment();
+        env.setActiveProfiles(Constants.SPRING_PROFILE_PRODUCTION);
+        env.getPropertySources().addFirst(new PropertiesPropertySource("application-prod", yaml.getObject()));
+
+        jHipsterProperties = new JHipsterProperties();
+        PropertiesConfigurationFactory<JHipsterProperties> binder = new PropertiesConfigurationFactory<>(jHipsterProperties);
+        binder.setTargetName("jhipster");
+        binder.setPropertySources(env.getPropertySources());
+        binder.bindPropertiesToTarget();
+
+        metricRegistry = new MetricRegistry();
+        webConfigurer = new WebConfigurer();
+        ReflectionTestUtils.setField(webConfigurer, "env", env);
+        ReflectionTestUtils.setField(webConfigurer, "jHipsterProperties", jHipsterProperties);
+        ReflectionTestUtils.setField(webConfigurer, "metricRegistry", metricRegistry);
+    }
+
+    @Test
+    public void countStatementsOfEachEndpointInProduction() throws Exception {
+        assertThat(jHipsterProperties.getDatasource().isCountStatements()).isTrue();
+
+        ServletContext servletContext = mock(ServletContext.class, RETURNS_DEEP_STUBS);
+        webConfigurer.onStartup(servletContext);
+        ArgumentCaptor<Filter> filter = ArgumentCaptor.forClass(Filter.class);
+        verify(servletContext).addFilter(eq("statementCountingFilter"), filter.capture());
+        assertThat(filter.getValue()).isInstanceOf(StatementCountingFilter.class);
+
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/authors");
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/api/authors");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.getValue().doFilter(request, response, new MockFilterChain());
+
+        String endpoint = MetricRegistry.name("GET", "/api/authors");
+        assertThat(metricRegistry.getHistograms())
+            .containsKey(MetricRegistry.name(StatementCountingFilter.class, endpoint, "statements"));
+        assertThat(metricRegistry.getTimers())
+            .containsKey(MetricRegistry.name(StatementCountingFilter.class, endpoint, "jdbc"));
+        assertThat(response.getHeader(StatementCountingFilter.STATEMENT_COUNT_HEADER)).isNull();
+    }
+}
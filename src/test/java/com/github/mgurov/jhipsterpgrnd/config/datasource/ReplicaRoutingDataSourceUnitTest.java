@@ -0,0 +1,205 @@
+package com.github.mgurov.jhipsterpgrnd.config.datasource;
+
+import com.codahale.metrics.MetricRegistry;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentMatcher;
+import org.springframework.jdbc.datasource.ConnectionProxy;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.argThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * Test class for the ReplicaRoutingDataSource, over stubbed pools.
+ *
+ * @see ReplicaRoutingDataSource
+ */
+public class ReplicaRoutingDataSourceUnitTest {
+
+    private static final long MAX_LAG_MILLIS = 1000;
+
+    private static final long LAG_CHECK_INTERVAL_MILLIS = 3_600_000;
+
+    private static final String LAG_QUERY = "select lag";
+
+    private MetricRegistry metricRegistry;
+
+    private HikariDataSource primary;
+
+    private Connection primaryConnection;
+
+    private ReplicaRoutingDataSource dataSource;
+
+    @Before
+    public void setup() throws SQLException {
+        metricRegistry = new MetricRegistry();
+        primaryConnection = mock(Connection.class);
+        primary = pool("primary", primaryConnection);
+    }
+
+    @After
+    public void cleanUp() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.getSynchronizations()
+                .forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        if (dataSource != null) {
+            dataSource.close();
+        }
+    }
+
+    @Test
+    public void sendReadOnlyTransactionsToReplicasInTurn() throws SQLException {
+        Connection first = replicaConnection(10);
+        Connection second = replicaConnection(20);
+        createDataSource(pool("replica-1", first), pool("replica-2", second));
+
+        Set<Connection> used = new HashSet<>(Arrays.asList(readOnlyTarget(), readOnlyTarget()));
+
+        assertThat(used).containsOnly(first, second);
+        assertThat(metricRegistry.getGauges().get(lagMetric("replica-2")).getValue()).isEqualTo(20L);
+        assertThat(fallbacks()).isEqualTo(0);
+    }
+
+    @Test
+    public void sendReadWriteTransactionsToPrimary() throws SQLException {
+        createDataSource(pool("replica-1", replicaConnection(10)));
+
+        try (Connection connection = dataSource.getConnection()) {
+            assertThat(((ConnectionProxy) connection).getTargetConnection()).isSameAs(primaryConnection);
+        }
+    }
+
+    @Test
+    public void skipReplicaLaggingTooMuch() throws SQLException {
+        Connection lagging = replicaConnection(MAX_LAG_MILLIS + 1);
+        Connection upToDate = replicaConnection(MAX_LAG_MILLIS);
+        createDataSource(pool("replica-1", lagging), pool("replica-2", upToDate));
+
+        assertThat(readOnlyTarget()).isSameAs(upToDate);
+        assertThat(readOnlyTarget()).isSameAs(upToDate);
+        assertThat(fallbacks()).isEqualTo(0);
+    }
+
+    @Test
+    public void fallBackToPrimaryWhenNoReplicaIsAvailable() throws SQLException {
+        HikariDataSource failing = mock(HikariDataSource.class);
+        when(failing.getPoolName()).thenReturn("replica-1");
+        when(failing.getConnection()).thenThrow(new SQLException("Connection refused"));
+        createDataSource(failing, pool("replica-2", replicaConnection(MAX_LAG_MILLIS * 10)));
+
+        assertThat(readOnlyTarget()).isSameAs(primaryConnection);
+        assertThat(fallbacks()).isEqualTo(1);
+        assertThat(metricRegistry.getGauges().get(lagMetric("replica-1")).getValue()).isEqualTo(-1L);
+    }
+
+    @Test
+    public void readFromPrimaryInCurrentTransactionWithoutReplicas() {
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        assertThat(ReplicaRoutingDataSource.readFromPrimary(transactionManager, () -> "read")).isEqualTo("read");
+        verifyZeroInteractions(transactionManager);
+    }
+
+    @Test
+    public void readFromPrimaryInCurrentTransactionSentToPrimary() throws SQLException {
+        HikariDataSource failing = mock(HikariDataSource.class);
+        when(failing.getPoolName()).thenReturn("replica-1");
+        when(failing.getConnection()).thenThrow(new SQLException("Connection refused"));
+        createDataSource(failing);
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        TransactionSynchronizationManager.initSynchronization();
+
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        try (Connection connection = dataSource.getConnection()) {
+            assertThat(((ConnectionProxy) connection).getTargetConnection()).isSameAs(primaryConnection);
+            assertThat(ReplicaRoutingDataSource.readFromPrimary(transactionManager, () -> "read")).isEqualTo("read");
+        }
+        verifyZeroInteractions(transactionManager);
+    }
+
+    @Test
+    public void readFromPrimaryInNewTransactionWhenSentToReplica() throws SQLException {
+        Connection replica = replicaConnection(10);
+        createDataSource(pool("replica-1", replica));
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        TransactionSynchronizationManager.initSynchronization();
+
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        try (Connection connection = dataSource.getConnection()) {
+            assertThat(((ConnectionProxy) connection).getTargetConnection()).isSameAs(replica);
+            assertThat(ReplicaRoutingDataSource.readFromPrimary(transactionManager, () -> "read")).isEqualTo("read");
+        }
+        verify(transactionManager).getTransaction(argThat(new ArgumentMatcher<TransactionDefinition>() {
+            @Override
+            public boolean matches(Object definition) {
+                return ((TransactionDefinition) definition).getPropagationBehavior()
+                    == TransactionDefinition.PROPAGATION_REQUIRES_NEW;
+            }
+        }));
+    }
+
+    private void createDataSource(HikariDataSource... replicas) {
+        dataSource = new ReplicaRoutingDataSource(primary, Arrays.asList(replicas), MAX_LAG_MILLIS,
+            LAG_CHECK_INTERVAL_MILLIS, LAG_QUERY, metricRegistry);
+        // The stubs do not change, so this check gives the same lags as the scheduled one
+        dataSource.checkLags();
+    }
+
+    private Connection readOnlyTarget() throws SQLException {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        try (Connection connection = dataSource.getConnection()) {
+            return ((ConnectionProxy) connection).getTargetConnection();
+        } finally {
+            TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+        }
+    }
+
+    private long fallbacks() {
+        return metricRegistry.counter(MetricRegistry.name(ReplicaRoutingDataSource.class, "fallbacks")).getCount();
+    }
+
+    private static String lagMetric(String poolName) {
+        return MetricRegistry.name(ReplicaRoutingDataSource.class, poolName, "lag");
+    }
+
+    private static HikariDataSource pool(String name, Connection connection) throws SQLException {
+        HikariDataSource pool = mock(HikariDataSource.class);
+        when(pool.getPoolName()).thenReturn(name);
+        when(pool.getConnection()).thenReturn(connection);
+        return pool;
+    }
+
+    private static Connection replicaConnection(long lagMillis) throws SQLException {
+        ResultSet resultSet = mock(ResultSet.class);
+        when(resultSet.next()).thenReturn(true);
+        when(resultSet.getLong(1)).thenReturn(lagMillis);
+        Statement statement = mock(Statement.class);
+        when(statement.executeQuery(anyString())).thenReturn(resultSet);
+        Connection connection = mock(Connection.class);
+        when(connection.createStatement()).thenReturn(statement);
+        return connection;
+    }
+}
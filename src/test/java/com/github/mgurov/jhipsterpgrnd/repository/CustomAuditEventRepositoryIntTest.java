@@ -0,0 +1,225 @@
+package com.github.mgurov.jhipsterpgrnd.repository;
+
+import com.codahale.metrics.MetricRegistry;
+import com.github.mgurov.jhipsterpgrnd.JhipsterpgrndApp;
+import com.github.mgurov.jhipsterpgrnd.config.JHipsterProperties;
+import com.github.mgurov.jhipsterpgrnd.config.datasource.StatementCounter;
+import com.github.mgurov.jhipsterpgrnd.domain.PersistentAuditEvent;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Matchers;
+import org.springframework.boot.actuate.audit.AuditEvent;
+import org.springframework.boot.test.IntegrationTest;
+import org.springframework.boot.test.SpringApplicationConfiguration;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.test.context.web.WebAppConfiguration;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.inject.Inject;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Test class for the CustomAuditEventRepository.
+ *
+ * @see CustomAuditEventRepository
+ */
+@RunWith(SpringJUnit4ClassRunner.class)
+@SpringApplicationConfiguration(classes = JhipsterpgrndApp.class)
+@WebAppConfiguration
+@IntegrationTest
+public class CustomAuditEventRepositoryIntTest {
+
+    private static final String SAMPLE_PRINCIPAL = "SAMPLE_PRINCIPAL";
+    private static final String SAMPLE_TYPE = "SAMPLE_TYPE";
+
+    @Inject
+    private CustomAuditEventRepository customAuditEventRepository;
+
+    @Inject
+    private PersistenceAuditEventRepository persistenceAuditEventRepository;
+
+    @Inject
+    private JHipsterProperties jHipsterProperties;
+
+    @Inject
+    private MetricRegistry metricRegistry;
+
+    @After
+    public void cleanUp() {
+        JHipsterProperties.Audit audit = jHipsterProperties.getAudit();
+        audit.setAsync(false);
+        audit.setQueueCapacity(new JHipsterProperties.Audit().getQueueCapacity());
+        audit.setBackPressure(new JHipsterProperties.Audit().getBackPressure());
+        audit.setBlockTimeoutMillis(new JHipsterProperties.Audit().getBlockTimeoutMillis());
+        customAuditEventRepository.flush();
+        // The events are added in their own transactions
+        persistenceAuditEventRepository.delete(persistenceAuditEventRepository.findByPrincipal(SAMPLE_PRINCIPAL));
+    }
+
+    @Test
+    public void addAuditEventInBatches() {
+        Map<String, Object> data = new HashMap<>();
+        for (int i = 0; i < 10; i++) {
+            data.put("key" + i, "value" + i);
+        }
+
+        StatementCounter counter = StatementCounter.start();
+        try {
+            customAuditEventRepository.add(new AuditEvent(SAMPLE_PRINCIPAL, SAMPLE_TYPE, data));
+        } finally {
+            counter.stop();
+        }
+
+        // The event and its data are inserted in a batch each, after at most one sequence call
+        assertThat(counter.getBatchedStatements()).isEqualTo(1 + 10);
+        assertThat(counter.getBatches()).isEqualTo(2);
+        assertThat(counter.getStatements()).isLessThanOrEqualTo(2 + 1);
+        List<PersistentAuditEvent> events = persistenceAuditEventRepository.findByPrincipal(SAMPLE_PRINCIPAL);
+        assertThat(events).hasSize(1);
+    }
+
+    @Test
+    public void addAuditEventAsynchronously() {
+        jHipsterProperties.getAudit().setAsync(true);
+        for (int i = 0; i < 3; i++) {
+            customAuditEventRepository.add(new AuditEvent(SAMPLE_PRINCIPAL, SAMPLE_TYPE, "key=value" + i));
+        }
+
+        // The events are queued until the flush
+        assertThat(persistenceAuditEventRepository.findByPrincipal(SAMPLE_PRINCIPAL)).isEmpty();
+        customAuditEventRepository.flush();
+        assertThat(persistenceAuditEventRepository.findByPrincipal(SAMPLE_PRINCIPAL)).hasSize(3);
+    }
+
+    @Test
+    public void dropAuditEventWhenQueueIsFull() {
+        jHipsterProperties.getAudit().setAsync(true);
+        jHipsterProperties.getAudit().setQueueCapacity(1);
+        jHipsterProperties.getAudit().setBackPressure(JHipsterProperties.Audit.BackPressure.DROP);
+        long droppedBefore = metricRegistry.counter(MetricRegistry.name(CustomAuditEventRepository.class, "dropped")).getCount();
+
+        customAuditEventRepository.add(new AuditEvent(SAMPLE_PRINCIPAL, SAMPLE_TYPE, "key=value1"));
+        customAuditEventRepository.add(new AuditEvent(SAMPLE_PRINCIPAL, SAMPLE_TYPE, "key=value2"));
+
+        assertThat(metricRegistry.counter(MetricRegistry.name(CustomAuditEventRepository.class, "dropped")).getCount())
+            .isEqualTo(droppedBefore + 1);
+        customAuditEventRepository.flush();
+        assertThat(persistenceAuditEventRepository.findByPrincipal(SAMPLE_PRINCIPAL)).hasSize(1);
+    }
+
+    @Test
+    public void addAuditEventSynchronouslyWhenQueueIsFull() {
+        jHipsterProperties.getAudit().setAsync(true);
+        jHipsterProperties.getAudit().setQueueCapacity(1);
+        jHipsterProperties.getAudit().setBackPressure(JHipsterProperties.Audit.BackPressure.SYNC);
+
+        customAuditEventRepository.add(new AuditEvent(SAMPLE_PRINCIPAL, SAMPLE_TYPE, "key=value1"));
+        customAuditEventRepository.add(new AuditEvent(SAMPLE_PRINCIPAL, SAMPLE_TYPE, "key=value2"));
+
+        // The second event is written on the calling thread, the first one by the flush
+        assertThat(persistenceAuditEventRepository.findByPrincipal(SAMPLE_PRINCIPAL)).hasSize(1);
+        customAuditEventRepository.flush();
+        assertThat(persistenceAuditEventRepository.findByPrincipal(SAMPLE_PRINCIPAL)).hasSize(2);
+    }
+
+    @Test
+    public void waitForRoomWhenQueueIsFull() {
+        jHipsterProperties.getAudit().setAsync(true);
+        jHipsterProperties.getAudit().setQueueCapacity(1);
+        jHipsterProperties.getAudit().setBackPressure(JHipsterProperties.Audit.BackPressure.BLOCK);
+        jHipsterProperties.getAudit().setBlockTimeoutMillis(10000);
+
+        customAuditEventRepository.add(new AuditEvent(SAMPLE_PRINCIPAL, SAMPLE_TYPE, "key=value1"));
+        // Waits for the early flush to write the first event
+        customAuditEventRepository.add(new AuditEvent(SAMPLE_PRINCIPAL, SAMPLE_TYPE, "key=value2"));
+
+        customAuditEventRepository.flush();
+        assertThat(persistenceAuditEventRepository.findByPrincipal(SAMPLE_PRINCIPAL)).hasSize(2);
+    }
+
+    @Test
+    public void dropAuditEventWhenBlockTimesOut() {
+        jHipsterProperties.getAudit().setAsync(true);
+        jHipsterProperties.getAudit().setQueueCapacity(1);
+        jHipsterProperties.getAudit().setBackPressure(JHipsterProperties.Audit.BackPressure.BLOCK);
+        jHipsterProperties.getAudit().setBlockTimeoutMillis(0);
+        long droppedBefore = metricRegistry.counter(MetricRegistry.name(CustomAuditEventRepository.class, "dropped")).getCount();
+
+        customAuditEventRepository.add(new AuditEvent(SAMPLE_PRINCIPAL, SAMPLE_TYPE, "key=value1"));
+        customAuditEventRepository.add(new AuditEvent(SAMPLE_PRINCIPAL, SAMPLE_TYPE, "key=value2"));
+
+        assertThat(metricRegistry.counter(MetricRegistry.name(CustomAuditEventRepository.class, "dropped")).getCount())
+            .isEqualTo(droppedBefore + 1);
+        customAuditEventRepository.flush();
+        assertThat(persistenceAuditEventRepository.findByPrincipal(SAMPLE_PRINCIPAL)).hasSize(1);
+    }
+
+    @Test
+    public void dropAuditEventFailingTooOften() {
+        jHipsterProperties.getAudit().setAsync(true);
+        long droppedBefore = metricRegistry.counter(MetricRegistry.name(CustomAuditEventRepository.class, "dropped")).getCount();
+
+        // The principal does not fit in its column
+        customAuditEventRepository.add(new AuditEvent(new String(new char[300]).replace('\0', 'x'), SAMPLE_TYPE, "key=value1"));
+        customAuditEventRepository.add(new AuditEvent(SAMPLE_PRINCIPAL, SAMPLE_TYPE, "key=value2"));
+
+        // The valid event is written despite the failing one, which is retried then dropped
+        customAuditEventRepository.flush();
+        assertThat(persistenceAuditEventRepository.findByPrincipal(SAMPLE_PRINCIPAL)).hasSize(1);
+        for (int i = 1; i < CustomAuditEventRepository.MAX_ATTEMPTS; i++) {
+            customAuditEventRepository.flush();
+        }
+        assertThat(metricRegistry.counter(MetricRegistry.name(CustomAuditEventRepository.class, "dropped")).getCount())
+            .isEqualTo(droppedBefore + 1);
+        assertThat(metricRegistry.getGauges().get(MetricRegistry.name(CustomAuditEventRepository.class, "pending")).getValue())
+            .isEqualTo(0);
+    }
+
+    @Test
+    public void keepAuditEventsWhileDatabaseIsUnavailable() {
+        jHipsterProperties.getAudit().setAsync(true);
+        long droppedBefore = metricRegistry.counter(MetricRegistry.name(CustomAuditEventRepository.class, "dropped")).getCount();
+        for (int i = 0; i < 3; i++) {
+            customAuditEventRepository.add(new AuditEvent(SAMPLE_PRINCIPAL, SAMPLE_TYPE, "key=value" + i));
+        }
+
+        PersistenceAuditEventRepository unavailable = mock(PersistenceAuditEventRepository.class, invocation -> {
+            throw new DataAccessResourceFailureException("Connection refused");
+        });
+        ReflectionTestUtils.setField(customAuditEventRepository, "persistenceAuditEventRepository", unavailable);
+        try {
+            // Each flush tries the batch then its first event only, and no attempt is counted
+            for (int i = 0; i < CustomAuditEventRepository.MAX_ATTEMPTS + 1; i++) {
+                ReflectionTestUtils.setField(customAuditEventRepository, "backOffUntil", 0L);
+                customAuditEventRepository.flush();
+            }
+            verify(unavailable, times(2 * (CustomAuditEventRepository.MAX_ATTEMPTS + 1)))
+                .save(Matchers.<Iterable<PersistentAuditEvent>>any());
+            // The next flush backs off
+            customAuditEventRepository.flush();
+            verify(unavailable, times(2 * (CustomAuditEventRepository.MAX_ATTEMPTS + 1)))
+                .save(Matchers.<Iterable<PersistentAuditEvent>>any());
+        } finally {
+            ReflectionTestUtils.setField(customAuditEventRepository, "persistenceAuditEventRepository", persistenceAuditEventRepository);
+            ReflectionTestUtils.setField(customAuditEventRepository, "backOffUntil", 0L);
+        }
+
+        assertThat(metricRegistry.counter(MetricRegistry.name(CustomAuditEventRepository.class, "dropped")).getCount())
+            .isEqualTo(droppedBefore);
+        assertThat(metricRegistry.getGauges().get(MetricRegistry.name(CustomAuditEventRepository.class, "pending")).getValue())
+            .isEqualTo(3);
+
+        // Once the database is back, all the events are written
+        customAuditEventRepository.flush();
+        assertThat(persistenceAuditEventRepository.findByPrincipal(SAMPLE_PRINCIPAL)).hasSize(3);
+    }
+}
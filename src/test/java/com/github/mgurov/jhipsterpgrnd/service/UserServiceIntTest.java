@@ -1,6 +1,7 @@
 package com.github.mgurov.jhipsterpgrnd.service;
 
 import com.github.mgurov.jhipsterpgrnd.JhipsterpgrndApp;
+import com.github.mgurov.jhipsterpgrnd.config.datasource.StatementCounter;
 import com.github.mgurov.jhipsterpgrnd.domain.PersistentToken;
 import com.github.mgurov.jhipsterpgrnd.domain.User;
 import com.github.mgurov.jhipsterpgrnd.repository.PersistentTokenRepository;
@@ -17,6 +18,7 @@ import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
 import org.springframework.test.context.web.WebAppConfiguration;
 
 import javax.inject.Inject;
+import java.util.Arrays;
 import java.util.Optional;
 import java.util.List;
 
@@ -136,6 +138,28 @@ public class UserServiceIntTest {
         assertThat(users).isEmpty();
     }
 
+    @Test
+    public void testDeleteUsersInBatches() {
+        List<User> users = Arrays.asList(
+            userService.createUserInformation("johndoe1", "johndoe", "John", "Doe", "john.doe1@localhost", "en-US"),
+            userService.createUserInformation("johndoe2", "johndoe", "John", "Doe", "john.doe2@localhost", "en-US"),
+            userService.createUserInformation("johndoe3", "johndoe", "John", "Doe", "john.doe3@localhost", "en-US"));
+        userRepository.flush();
+
+        StatementCounter counter = StatementCounter.start();
+        try {
+            userRepository.delete(users);
+            userRepository.flush();
+        } finally {
+            counter.stop();
+        }
+
+        // One batch deletes the authorities of the users, another one the users
+        assertThat(counter.getBatchedStatements()).isEqualTo(6);
+        assertThat(counter.getBatches()).isEqualTo(2);
+        assertThat(counter.getStatements()).isEqualTo(2);
+    }
+
     private void generateUserToken(User user, String tokenSeries, LocalDate localDate) {
         PersistentToken token = new PersistentToken();
         token.setSeries(tokenSeries);
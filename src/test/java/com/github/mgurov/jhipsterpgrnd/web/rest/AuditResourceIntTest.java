@@ -2,8 +2,10 @@ package com.github.mgurov.jhipsterpgrnd.web.rest;
 
 import com.github.mgurov.jhipsterpgrnd.JhipsterpgrndApp;
 import com.github.mgurov.jhipsterpgrnd.config.audit.AuditEventConverter;
+import com.github.mgurov.jhipsterpgrnd.config.datasource.StatementCounter;
 import com.github.mgurov.jhipsterpgrnd.domain.PersistentAuditEvent;
 import com.github.mgurov.jhipsterpgrnd.repository.PersistenceAuditEventRepository;
+import com.github.mgurov.jhipsterpgrnd.repository.TableStatisticsRepository;
 import com.github.mgurov.jhipsterpgrnd.service.AuditEventService;
 import org.junit.Before;
 import org.junit.Test;
@@ -21,10 +23,16 @@ import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
 import javax.inject.Inject;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.Map;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.hasSize;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -50,12 +58,18 @@ public class AuditResourceIntTest {
     @Inject
     private AuditEventConverter auditEventConverter;
 
+    @Inject
+    private TableStatisticsRepository tableStatisticsRepository;
+
     @Inject
     private MappingJackson2HttpMessageConverter jacksonMessageConverter;
 
     @Inject
     private PageableHandlerMethodArgumentResolver pageableArgumentResolver;
 
+    @PersistenceContext
+    private EntityManager entityManager;
+
     private PersistentAuditEvent auditEvent;
 
     private MockMvc restAuditMockMvc;
@@ -64,7 +78,7 @@ public class AuditResourceIntTest {
     public void setup() {
         MockitoAnnotations.initMocks(this);
         AuditEventService auditEventService =
-                new AuditEventService(auditEventRepository, auditEventConverter);
+                new AuditEventService(auditEventRepository, auditEventConverter, tableStatisticsRepository);
         AuditResource auditResource = new AuditResource(auditEventService);
         this.restAuditMockMvc = MockMvcBuilders.standaloneSetup(auditResource)
             .setCustomArgumentResolvers(pageableArgumentResolver)
@@ -92,6 +106,34 @@ public class AuditResourceIntTest {
                 .andExpect(jsonPath("$.[*].principal").value(hasItem(SAMPLE_PRINCIPAL)));
     }
 
+    @Test
+    public void getAllAuditsInConstantQueries() throws Exception {
+        // Initialize the database with several events having data
+        for (int i = 0; i < 5; i++) {
+            PersistentAuditEvent event = new PersistentAuditEvent();
+            event.setAuditEventType(SAMPLE_TYPE);
+            event.setPrincipal(SAMPLE_PRINCIPAL);
+            event.setAuditEventDate(SAMPLE_TIMESTAMP);
+            Map<String, String> data = new HashMap<>();
+            data.put("remoteAddress", "127.0.0." + i);
+            event.setData(data);
+            auditEventRepository.saveAndFlush(event);
+        }
+        entityManager.clear();
+
+        // The ids of the page are read, then the events with their data, whatever the number of events
+        StatementCounter counter = StatementCounter.start();
+        try {
+            restAuditMockMvc.perform(get("/management/jhipster/audits?count=false"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$", hasSize(5)))
+                    .andExpect(jsonPath("$.[*].data.remoteAddress").value(hasItem("127.0.0.4")));
+        } finally {
+            counter.stop();
+        }
+        assertThat(counter.getStatements()).isEqualTo(2);
+    }
+
     @Test
     public void getAudit() throws Exception {
         // Initialize the database
@@ -1,36 +1,67 @@
 package com.github.mgurov.jhipsterpgrnd.web.rest;
 
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.github.mgurov.jhipsterpgrnd.JhipsterpgrndApp;
+import com.github.mgurov.jhipsterpgrnd.config.JHipsterProperties;
+import com.github.mgurov.jhipsterpgrnd.config.JacksonConfiguration;
+import com.github.mgurov.jhipsterpgrnd.config.datasource.StatementCounter;
 import com.github.mgurov.jhipsterpgrnd.domain.Author;
+import com.github.mgurov.jhipsterpgrnd.repository.ArchivedAuthorRepository;
 import com.github.mgurov.jhipsterpgrnd.repository.AuthorRepository;
+import com.github.mgurov.jhipsterpgrnd.repository.search.AuthorSearchRepository;
+import com.github.mgurov.jhipsterpgrnd.service.AuthorChangeFeed;
 import com.github.mgurov.jhipsterpgrnd.service.AuthorService;
+import com.github.mgurov.jhipsterpgrnd.service.AuthorTimestampWriter;
+import com.github.mgurov.jhipsterpgrnd.web.rest.dto.AuthorChangeDTO;
 import com.github.mgurov.jhipsterpgrnd.web.rest.dto.AuthorDTO;
+import com.github.mgurov.jhipsterpgrnd.web.rest.errors.ExceptionTranslator;
+import com.github.mgurov.jhipsterpgrnd.web.filter.StatementCountingFilter;
+import com.github.mgurov.jhipsterpgrnd.web.rest.util.IdempotencyKeyStore;
 import com.github.mgurov.jhipsterpgrnd.web.rest.mapper.AuthorMapper;
+import com.github.mgurov.jhipsterpgrnd.web.rest.mapper.AuthorStreamingMapper;
 
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.everyItem;
 import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.isEmptyOrNullString;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.startsWith;
 import org.mockito.MockitoAnnotations;
 import org.springframework.boot.test.IntegrationTest;
 import org.springframework.boot.test.SpringApplicationConfiguration;
+import org.springframework.core.task.TaskExecutor;
 import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
 import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
 import org.springframework.data.web.PageableHandlerMethodArgumentResolver;
 import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
 import org.springframework.test.context.web.WebAppConfiguration;
 import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import org.springframework.transaction.annotation.Transactional;
 
 import javax.annotation.PostConstruct;
 import javax.inject.Inject;
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
 import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
 import java.util.List;
+import java.util.stream.Collectors;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -60,20 +91,48 @@ public class AuthorResourceIntTest {
     @Inject
     private AuthorRepository authorRepository;
 
+    @Inject
+    private ArchivedAuthorRepository archivedAuthorRepository;
+
     @Inject
     private AuthorMapper authorMapper;
 
     @Inject
     private AuthorService authorService;
 
+    @Inject
+    private AuthorSearchRepository authorSearchRepository;
+
+    @Inject
+    private AuthorChangeFeed authorChangeFeed;
+
+    @Inject
+    private AuthorTimestampWriter authorTimestampWriter;
+
+    @Inject
+    private JHipsterProperties jHipsterProperties;
+
     @Inject
     private MappingJackson2HttpMessageConverter jacksonMessageConverter;
 
     @Inject
     private PageableHandlerMethodArgumentResolver pageableArgumentResolver;
 
+    @Inject
+    private JacksonConfiguration jacksonConfiguration;
+
+    @Inject
+    private IdempotencyKeyStore idempotencyKeyStore;
+
     private MockMvc restAuthorMockMvc;
 
+    private MockMvc restAuthorMockMvcWithStatementCounts;
+
+    @Inject
+    private MetricRegistry metricRegistry;
+
+    private final MetricRegistry statementMetricRegistry = new MetricRegistry();
+
     private Author author;
 
     @PostConstruct
@@ -81,10 +140,22 @@ public class AuthorResourceIntTest {
         MockitoAnnotations.initMocks(this);
         AuthorResource authorResource = new AuthorResource();
         ReflectionTestUtils.setField(authorResource, "authorService", authorService);
+        ReflectionTestUtils.setField(authorResource, "authorChangeFeed", authorChangeFeed);
+        ReflectionTestUtils.setField(authorResource, "authorTimestampWriter", authorTimestampWriter);
         ReflectionTestUtils.setField(authorResource, "authorMapper", authorMapper);
+        ReflectionTestUtils.setField(authorResource, "objectMapper", jacksonMessageConverter.getObjectMapper());
+        ReflectionTestUtils.setField(authorResource, "idempotencyKeyStore", idempotencyKeyStore);
+        List<HttpMessageConverter<?>> messageConverters = new ArrayList<>();
+        messageConverters.add(jacksonMessageConverter);
+        jacksonConfiguration.extendMessageConverters(messageConverters);
         this.restAuthorMockMvc = MockMvcBuilders.standaloneSetup(authorResource)
             .setCustomArgumentResolvers(pageableArgumentResolver)
-            .setMessageConverters(jacksonMessageConverter).build();
+            .setControllerAdvice(new ExceptionTranslator())
+            .setMessageConverters(messageConverters.toArray(new HttpMessageConverter<?>[messageConverters.size()])).build();
+        this.restAuthorMockMvcWithStatementCounts = MockMvcBuilders.standaloneSetup(authorResource)
+            .setCustomArgumentResolvers(pageableArgumentResolver)
+            .setMessageConverters(messageConverters.toArray(new HttpMessageConverter<?>[messageConverters.size()]))
+            .addFilters(new StatementCountingFilter(jHipsterProperties, true, statementMetricRegistry)).build();
     }
 
     @Before
@@ -115,6 +186,200 @@ public class AuthorResourceIntTest {
         assertThat(testAuthor.getTimestamp()).isEqualTo(DEFAULT_TIMESTAMP);
     }
 
+    @Test
+    @Transactional
+    public void createAuthorWithIdempotencyKey() throws Exception {
+        int databaseSizeBeforeCreate = authorRepository.findAll().size();
+        String idempotencyKey = "createAuthorWithIdempotencyKey-" + System.nanoTime();
+
+        // Create the Author, then retry the creation
+        AuthorDTO authorDTO = authorMapper.authorToAuthorDTO(author);
+
+        MvcResult created = restAuthorMockMvc.perform(post("/api/authors")
+                .header(IdempotencyKeyStore.IDEMPOTENCY_KEY, idempotencyKey)
+                .contentType(TestUtil.APPLICATION_JSON_UTF8)
+                .content(TestUtil.convertObjectToJsonBytes(authorDTO)))
+                .andExpect(status().isCreated())
+                .andExpect(header().doesNotExist(IdempotencyKeyStore.IDEMPOTENT_REPLAYED))
+                .andReturn();
+
+        restAuthorMockMvc.perform(post("/api/authors")
+                .header(IdempotencyKeyStore.IDEMPOTENCY_KEY, idempotencyKey)
+                .contentType(TestUtil.APPLICATION_JSON_UTF8)
+                .content(TestUtil.convertObjectToJsonBytes(authorDTO)))
+                .andExpect(status().isCreated())
+                .andExpect(header().string(IdempotencyKeyStore.IDEMPOTENT_REPLAYED, "true"))
+                .andExpect(header().string("Location", created.getResponse().getHeader("Location")))
+                .andExpect(content().string(created.getResponse().getContentAsString()));
+
+        // Validate the Author is created once
+        assertThat(authorRepository.findAll()).hasSize(databaseSizeBeforeCreate + 1);
+    }
+
+    @Test
+    @Transactional
+    public void createAuthorWithReusedIdempotencyKey() throws Exception {
+        int databaseSizeBeforeCreate = authorRepository.findAll().size();
+        String idempotencyKey = "createAuthorWithReusedIdempotencyKey-" + System.nanoTime();
+
+        // Create the Author, then another one with the same key
+        AuthorDTO authorDTO = authorMapper.authorToAuthorDTO(author);
+        restAuthorMockMvc.perform(post("/api/authors")
+                .header(IdempotencyKeyStore.IDEMPOTENCY_KEY, idempotencyKey)
+                .contentType(TestUtil.APPLICATION_JSON_UTF8)
+                .content(TestUtil.convertObjectToJsonBytes(authorDTO)))
+                .andExpect(status().isCreated());
+
+        authorDTO.setDescription(UPDATED_DESCRIPTION);
+        restAuthorMockMvc.perform(post("/api/authors")
+                .header(IdempotencyKeyStore.IDEMPOTENCY_KEY, idempotencyKey)
+                .contentType(TestUtil.APPLICATION_JSON_UTF8)
+                .content(TestUtil.convertObjectToJsonBytes(authorDTO)))
+                .andExpect(status().isUnprocessableEntity())
+                .andExpect(jsonPath("$.message").value("error.idempotencyKeyMismatch"));
+
+        // Validate the second Author is not created
+        assertThat(authorRepository.findAll()).hasSize(databaseSizeBeforeCreate + 1);
+    }
+
+    @Test
+    public void bulkSaveAuthors() throws Exception {
+        int databaseSizeBeforeCreate = authorRepository.findAll().size();
+        long sequence = authorChangeFeed.getSequence();
+
+        // Create two authors and update a missing one
+        AuthorDTO first = authorMapper.authorToAuthorDTO(author);
+        AuthorDTO second = authorMapper.authorToAuthorDTO(author);
+        second.setDescription(UPDATED_DESCRIPTION);
+        AuthorDTO missing = authorMapper.authorToAuthorDTO(author);
+        missing.setId(Long.MAX_VALUE);
+
+        restAuthorMockMvc.perform(post("/api/authors/_bulk")
+                .contentType(TestUtil.APPLICATION_JSON_UTF8)
+                .content(TestUtil.convertObjectToJsonBytes(Arrays.asList(first, second, missing))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(3)))
+                .andExpect(jsonPath("$.[0].status").value(201))
+                .andExpect(jsonPath("$.[1].status").value(201))
+                .andExpect(jsonPath("$.[2].status").value(404))
+                .andExpect(jsonPath("$.[2].id").value(Long.MAX_VALUE));
+
+        // The created authors are published once committed
+        assertThat(authorChangeFeed.getSequence()).isEqualTo(sequence + 2);
+
+        // Validate the Authors in the database, then clean up as the bulk save commits its own transactions
+        List<Author> authors = authorRepository.findAll();
+        assertThat(authors).hasSize(databaseSizeBeforeCreate + 2);
+        assertThat(authors).extracting("description").contains(DEFAULT_DESCRIPTION, UPDATED_DESCRIPTION);
+        authorRepository.delete(authors.subList(databaseSizeBeforeCreate, authors.size()));
+    }
+
+    @Test
+    public void bulkSaveAuthorsInBatches() throws Exception {
+        int databaseSizeBeforeCreate = authorRepository.findAll().size();
+        List<AuthorDTO> authorDTOs = new ArrayList<>();
+        for (int i = 0; i < 120; i++) {
+            authorDTOs.add(authorMapper.authorToAuthorDTO(author));
+        }
+
+        // The inserts are sent in batches of 50, the ids being allocated 50 at a time too
+        StatementCounter counter = StatementCounter.start();
+        try {
+            restAuthorMockMvc.perform(post("/api/authors/_bulk")
+                    .contentType(TestUtil.APPLICATION_JSON_UTF8)
+                    .content(TestUtil.convertObjectToJsonBytes(authorDTOs)))
+                    .andExpect(status().isOk());
+        } finally {
+            counter.stop();
+        }
+        assertThat(counter.getBatchedStatements()).isEqualTo(120);
+        assertThat(counter.getBatches()).isEqualTo(3);
+        assertThat(counter.getStatements()).isLessThanOrEqualTo(3 + 4);
+
+        // The versioned updates are sent in batches too, after a single query loading the authors
+        List<Author> authors = authorRepository.findAll();
+        List<Author> created = authors.subList(databaseSizeBeforeCreate, authors.size());
+        List<AuthorDTO> updatedDTOs = authorMapper.authorsToAuthorDTOs(created);
+        updatedDTOs.forEach(authorDTO -> authorDTO.setDescription(UPDATED_DESCRIPTION));
+        counter = StatementCounter.start();
+        try {
+            restAuthorMockMvc.perform(post("/api/authors/_bulk")
+                    .contentType(TestUtil.APPLICATION_JSON_UTF8)
+                    .content(TestUtil.convertObjectToJsonBytes(updatedDTOs)))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.[*].status").value(everyItem(is(200))));
+        } finally {
+            counter.stop();
+        }
+        assertThat(counter.getBatchedStatements()).isEqualTo(120);
+        assertThat(counter.getBatches()).isEqualTo(3);
+        assertThat(counter.getStatements()).isEqualTo(1 + 3);
+
+        // Clean up as the bulk save commits its own transactions
+        authorRepository.delete(authorRepository.findAll(created.stream().map(Author::getId).collect(Collectors.toList())));
+    }
+
+    @Test
+    public void importAuthorsFromCsv() throws Exception {
+        int databaseSizeBeforeImport = authorRepository.findAll().size();
+
+        restAuthorMockMvc.perform(post("/api/authors/_import")
+                .contentType(AuthorResource.TEXT_CSV_VALUE)
+                .content("timestamp,description\n" +
+                    DEFAULT_TIMESTAMP_STR + "," + DEFAULT_DESCRIPTION + "\n" +
+                    "\n" +
+                    "," + "\"" + UPDATED_DESCRIPTION + ", \"\"quoted\"\"\"\n"))
+                .andExpect(status().isOk());
+
+        // Validate the Authors in the database, then clean up as the import commits its own transactions
+        List<Author> authors = authorRepository.findAll();
+        assertThat(authors).hasSize(databaseSizeBeforeImport + 2);
+        List<Author> imported = authors.subList(databaseSizeBeforeImport, authors.size());
+        assertThat(imported).extracting("description")
+            .containsExactly(DEFAULT_DESCRIPTION, UPDATED_DESCRIPTION + ", \"quoted\"");
+        assertThat(imported.get(0).getTimestamp().toInstant()).isEqualTo(DEFAULT_TIMESTAMP.toInstant());
+        assertThat(imported.get(1).getTimestamp()).isNull();
+        authorRepository.delete(imported);
+    }
+
+    @Test
+    public void importAuthorsFromNdjson() throws Exception {
+        int databaseSizeBeforeImport = authorRepository.findAll().size();
+        long sequence = authorChangeFeed.getSequence();
+
+        restAuthorMockMvc.perform(post("/api/authors/_import")
+                .contentType(AuthorResource.APPLICATION_NDJSON_VALUE)
+                .content("{\"description\":\"" + DEFAULT_DESCRIPTION + "\",\"timestamp\":\"" + DEFAULT_TIMESTAMP_STR + "\"}\n" +
+                    "{\"id\":1,\"description\":\"" + UPDATED_DESCRIPTION + "\"}\n"))
+                .andExpect(status().isOk());
+
+        // The imported authors are published once committed
+        assertThat(authorChangeFeed.getSequence()).isEqualTo(sequence + 2);
+
+        // Validate the Authors in the database, then clean up as the import commits its own transactions
+        List<Author> authors = authorRepository.findAll();
+        assertThat(authors).hasSize(databaseSizeBeforeImport + 2);
+        List<Author> imported = authors.subList(databaseSizeBeforeImport, authors.size());
+        assertThat(imported).extracting("description").containsExactly(DEFAULT_DESCRIPTION, UPDATED_DESCRIPTION);
+        authorRepository.delete(imported);
+    }
+
+    @Test
+    public void importMalformedAuthors() throws Exception {
+        int databaseSizeBeforeImport = authorRepository.findAll().size();
+        Timer chunks = metricRegistry.timer(MetricRegistry.name(AuthorService.class, "import", "chunks"));
+        long chunksBeforeImport = chunks.getCount();
+
+        restAuthorMockMvc.perform(post("/api/authors/_import")
+                .contentType(AuthorResource.APPLICATION_NDJSON_VALUE)
+                .content("{\"description\":"))
+                .andExpect(status().isBadRequest());
+
+        assertThat(authorRepository.findAll()).hasSize(databaseSizeBeforeImport);
+        // The failed chunk is timed too
+        assertThat(chunks.getCount()).isEqualTo(chunksBeforeImport + 1);
+    }
+
     @Test
     @Transactional
     public void getAllAuthors() throws Exception {
@@ -130,6 +395,348 @@ public class AuthorResourceIntTest {
                 .andExpect(jsonPath("$.[*].timestamp").value(hasItem(DEFAULT_TIMESTAMP_STR)));
     }
 
+    @Test
+    @Transactional
+    public void getAllAuthorsWithStatementCounts() throws Exception {
+        // Initialize the database
+        authorRepository.saveAndFlush(author);
+
+        // Get all the authors without counting them, in a single query
+        restAuthorMockMvcWithStatementCounts.perform(get("/api/authors?sort=id,desc&count=false"))
+            .andExpect(status().isOk())
+            .andExpect(header().string(StatementCountingFilter.STATEMENT_COUNT_HEADER, "1"))
+            .andExpect(header().string(StatementCountingFilter.JDBC_TIME_HEADER, not(isEmptyOrNullString())));
+
+        // The statements are measured by endpoint
+        assertThat(statementMetricRegistry.getHistograms().get(MetricRegistry.name(StatementCountingFilter.class,
+            "GET", "/api/authors", "statements")).getSnapshot().getValues()).containsExactly(1);
+    }
+
+    @Test
+    @Transactional
+    public void getAllAuthorsWithoutCount() throws Exception {
+        // Initialize the database
+        authorRepository.saveAndFlush(author);
+        Author second = new Author();
+        second.setDescription(UPDATED_DESCRIPTION);
+        second.setTimestamp(UPDATED_TIMESTAMP);
+        authorRepository.saveAndFlush(second);
+
+        restAuthorMockMvc.perform(get("/api/authors?sort=id,asc&size=1&count=false"))
+            .andExpect(status().isOk())
+            .andExpect(header().doesNotExist("X-Total-Count"))
+            .andExpect(header().string("Link", containsString("count=false&page=1&size=1>; rel=\"next\"")))
+            .andExpect(header().string("Link", not(containsString("rel=\"last\""))))
+            .andExpect(jsonPath("$", hasSize(1)));
+    }
+
+    @Test
+    @Transactional
+    public void getAllAuthorsWithEstimatedCount() throws Exception {
+        // Initialize the database
+        authorRepository.saveAndFlush(author);
+
+        // H2 has no statistics, the count is exact
+        restAuthorMockMvc.perform(get("/api/authors?count=estimated"))
+            .andExpect(status().isOk())
+            .andExpect(header().string("X-Total-Count", String.valueOf(authorRepository.count())));
+    }
+
+    @Test
+    @Transactional
+    public void getAllAuthorsWithInvalidCount() throws Exception {
+        restAuthorMockMvc.perform(get("/api/authors?count=maybe"))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @Transactional
+    public void getAllAuthorFields() throws Exception {
+        // Initialize the database
+        authorRepository.saveAndFlush(author);
+
+        restAuthorMockMvc.perform(get("/api/authors?sort=id,desc&fields=description,id"))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+            .andExpect(jsonPath("$.[*].id").value(hasItem(author.getId().intValue())))
+            .andExpect(jsonPath("$.[*].description").value(hasItem(DEFAULT_DESCRIPTION)))
+            .andExpect(jsonPath("$.[*].timestamp").doesNotExist());
+    }
+
+    @Test
+    @Transactional
+    public void getAllAuthorFieldsWithUnknownField() throws Exception {
+        restAuthorMockMvc.perform(get("/api/authors?fields=id,password"))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @Transactional
+    public void getAllAuthorsAfter() throws Exception {
+        // Initialize the database
+        authorRepository.saveAndFlush(author);
+        Author second = new Author();
+        second.setDescription(UPDATED_DESCRIPTION);
+        second.setTimestamp(UPDATED_TIMESTAMP);
+        authorRepository.saveAndFlush(second);
+        Author third = new Author();
+        third.setDescription(UPDATED_DESCRIPTION);
+        third.setTimestamp(UPDATED_TIMESTAMP);
+        authorRepository.saveAndFlush(third);
+
+        // Get the slice following the first author
+        restAuthorMockMvc.perform(get("/api/authors?after={id}&size=1", author.getId()))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(header().doesNotExist("X-Total-Count"))
+                .andExpect(header().string("Link", containsString("after=" + second.getId())))
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$.[0].id").value(second.getId().intValue()));
+    }
+
+    @Test
+    @Transactional
+    public void getAllAuthorsByTimestamp() throws Exception {
+        // Initialize the database
+        author.setTimestamp(UPDATED_TIMESTAMP.minusMinutes(1));
+        authorRepository.saveAndFlush(author);
+        Author second = new Author();
+        second.setTimestamp(UPDATED_TIMESTAMP.minusMinutes(1));
+        authorRepository.saveAndFlush(second);
+        Author outOfRange = new Author();
+        outOfRange.setTimestamp(UPDATED_TIMESTAMP);
+        authorRepository.saveAndFlush(outOfRange);
+        String from = UPDATED_TIMESTAMP.minusHours(1).toInstant().toString();
+        String to = UPDATED_TIMESTAMP.toInstant().toString();
+
+        // Get the first slice of the time range
+        MvcResult result = restAuthorMockMvc.perform(get("/api/authors?from={from}&to={to}&size=1", from, to))
+            .andExpect(status().isOk())
+            .andExpect(header().doesNotExist("X-Total-Count"))
+            .andExpect(jsonPath("$", hasSize(1)))
+            .andExpect(jsonPath("$.[0].id").value(author.getId().intValue()))
+            .andReturn();
+        String link = result.getResponse().getHeader("Link");
+        String cursor = link.substring(link.indexOf("cursor=") + "cursor=".length(), link.indexOf("&size="));
+
+        // Follow the cursor to the second, last slice
+        restAuthorMockMvc.perform(get("/api/authors?from={from}&to={to}&cursor={cursor}&size=1", from, to, cursor))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$", hasSize(1)))
+            .andExpect(jsonPath("$.[0].id").value(second.getId().intValue()))
+            .andExpect(header().doesNotExist("Link"));
+
+        // A cursor at the end of the time range does not go past it
+        String endCursor = Base64.getUrlEncoder().withoutPadding()
+            .encodeToString((UPDATED_TIMESTAMP.toInstant() + "_0").getBytes(StandardCharsets.UTF_8));
+        restAuthorMockMvc.perform(get("/api/authors?from={from}&to={to}&cursor={cursor}&size=1", from, to, endCursor))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$", hasSize(0)));
+    }
+
+    @Test
+    @Transactional
+    public void getAllAuthorsByTimestampWithoutEnd() throws Exception {
+        restAuthorMockMvc.perform(get("/api/authors?from={from}", DEFAULT_TIMESTAMP.toInstant().toString()))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void getAuthorStats() throws Exception {
+        // Initialize the database with two authors in the first hour and one in the second hour, through the
+        // service, committing them, for the cached counts to be the ones of committed authors
+        ZonedDateTime start = ZonedDateTime.of(2000, 1, 1, 10, 0, 0, 0, ZoneId.systemDefault());
+        List<Long> ids = new ArrayList<>();
+        try {
+            for (int minutes : new int[] { 15, 45, 90 }) {
+                AuthorDTO authorDTO = new AuthorDTO();
+                authorDTO.setTimestamp(start.plusMinutes(minutes));
+                ids.add(authorService.save(authorDTO).getId());
+            }
+
+            // Count the authors of three hours, the first one being counted from its start
+            restAuthorMockMvc.perform(get("/api/authors/_stats?interval=hour&from={from}&to={to}",
+                    start.plusMinutes(30).toInstant().toString(), start.plusHours(3).toInstant().toString()))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$", hasSize(3)))
+                .andExpect(jsonPath("$.[0].start").value(dateTimeFormatter.format(start)))
+                .andExpect(jsonPath("$.[0].count").value(2))
+                .andExpect(jsonPath("$.[1].count").value(1))
+                .andExpect(jsonPath("$.[2].count").value(0));
+        } finally {
+            // Deleted through the service too, dropping the cached counts
+            ids.forEach(authorService::delete);
+        }
+    }
+
+    @Test
+    public void getAuthorStatsWithInvalidInterval() throws Exception {
+        restAuthorMockMvc.perform(get("/api/authors/_stats?interval=week&from={from}", DEFAULT_TIMESTAMP_STR))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @Transactional
+    public void exportAuthors() throws Exception {
+        // Initialize the database
+        authorRepository.saveAndFlush(author);
+
+        // Export the authors
+        restAuthorMockMvc.perform(get("/api/authors/_export"))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(AuthorResource.APPLICATION_NDJSON_VALUE + ";charset=UTF-8"))
+            .andExpect(content().string(containsString("\"id\":" + author.getId() + ",")))
+            .andExpect(content().string(containsString("\"timestamp\":\"" + DEFAULT_TIMESTAMP_STR + "\",\"version\":0}\n")));
+    }
+
+    @Test
+    public void getAuthorChanges() throws Exception {
+        long sequence = authorChangeFeed.getSequence();
+
+        // Create, update and delete an author through the service, committing them, for the changes to be published
+        AuthorDTO created = authorService.save(authorMapper.authorToAuthorDTO(author));
+        created.setDescription(UPDATED_DESCRIPTION);
+        authorService.save(created);
+        authorService.delete(created.getId());
+
+        // Reconnect after the last known change, the missed changes are replayed
+        restAuthorMockMvc.perform(get("/api/authors/_changes")
+            .header("Last-Event-ID", sequence))
+            .andExpect(request().asyncStarted())
+            .andExpect(content().string(containsString("id:" + (sequence + 1) + "\nevent:created\n")))
+            .andExpect(content().string(containsString("id:" + (sequence + 2) + "\nevent:updated\n")))
+            .andExpect(content().string(containsString("\"description\":\"" + UPDATED_DESCRIPTION + "\"")))
+            .andExpect(content().string(containsString("id:" + (sequence + 3) + "\nevent:deleted\n")));
+
+        // Reconnect after an unknown change, the client is told to reload
+        restAuthorMockMvc.perform(get("/api/authors/_changes")
+            .header("Last-Event-ID", sequence + 4))
+            .andExpect(request().asyncStarted())
+            .andExpect(content().string(containsString("event:reset\n")));
+    }
+
+    @Test
+    public void sendAuthorChangesBySingleDrain() throws Exception {
+        List<Long> received = new ArrayList<>();
+        AuthorChangeFeed.Subscription subscription = authorChangeFeed.subscribe(null, new AuthorChangeFeed.Subscriber() {
+            @Override
+            public void onChange(long sequence, AuthorChangeDTO change) {
+                received.add(change.getId());
+            }
+
+            @Override
+            public void onReset(long sequence) {
+            }
+        });
+        Object taskExecutor = ReflectionTestUtils.getField(authorChangeFeed, "taskExecutor");
+        List<Runnable> tasks = new ArrayList<>();
+        ReflectionTestUtils.setField(authorChangeFeed, "taskExecutor", (TaskExecutor) tasks::add);
+        try {
+            // Publish changes before the subscriber is sent any, a single drain is scheduled for all of them
+            authorChangeFeed.publish(AuthorChangeDTO.Type.DELETED, 1L, null);
+            authorChangeFeed.publish(AuthorChangeDTO.Type.DELETED, 2L, null);
+            authorChangeFeed.publish(AuthorChangeDTO.Type.DELETED, 3L, null);
+            assertThat(tasks).hasSize(1);
+            tasks.remove(0).run();
+            assertThat(received).containsExactly(1L, 2L, 3L);
+
+            // Once drained, the next change schedules another drain
+            authorChangeFeed.publish(AuthorChangeDTO.Type.DELETED, 4L, null);
+            assertThat(tasks).hasSize(1);
+            tasks.remove(0).run();
+            assertThat(received).containsExactly(1L, 2L, 3L, 4L);
+        } finally {
+            ReflectionTestUtils.setField(authorChangeFeed, "taskExecutor", taskExecutor);
+            subscription.cancel();
+        }
+    }
+
+    @Test
+    @Transactional
+    public void streamAuthorsAsAuthorDTOs() throws Exception {
+        // Initialize the database, with an author without description
+        authorRepository.saveAndFlush(author);
+        Author emptyAuthor = new Author();
+        emptyAuthor.setTimestamp(UPDATED_TIMESTAMP);
+        authorRepository.saveAndFlush(emptyAuthor);
+
+        // The authors are written as their DTOs would be
+        List<Author> authors = Arrays.asList(author, emptyAuthor);
+        assertThat(jacksonMessageConverter.getObjectMapper().writeValueAsString(AuthorStreamingMapper.authorsToAuthorDTOs(authors)))
+            .isEqualTo(jacksonMessageConverter.getObjectMapper().writeValueAsString(authorMapper.authorsToAuthorDTOs(authors)));
+    }
+
+    @Test
+    public void searchAuthors() throws Exception {
+        // Save the authors through the service, committing them, for them to be indexed
+        AuthorDTO matching = authorMapper.authorToAuthorDTO(author);
+        matching.setDescription("Wrote the Earthsea cycle");
+        matching = authorService.save(matching);
+        AuthorDTO moreMatching = authorMapper.authorToAuthorDTO(author);
+        moreMatching.setDescription("Earthsea, then Earthsea again");
+        moreMatching = authorService.save(moreMatching);
+        AuthorDTO notMatching = authorService.save(authorMapper.authorToAuthorDTO(author));
+
+        try {
+            // Search the authors, the most relevant first
+            restAuthorMockMvc.perform(get("/api/_search/authors?q=earthsea"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(header().string("X-Total-Count", "2"))
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$.[0].id").value(moreMatching.getId().intValue()))
+                .andExpect(jsonPath("$.[1].id").value(matching.getId().intValue()));
+        } finally {
+            authorService.delete(matching.getId());
+            authorService.delete(moreMatching.getId());
+            authorService.delete(notMatching.getId());
+        }
+
+        // Deleted authors are no longer found
+        restAuthorMockMvc.perform(get("/api/_search/authors?q=earthsea"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$", hasSize(0)));
+    }
+
+    @Test
+    public void searchAuthorsMissingFromDatabase() throws Exception {
+        // Save the authors through the service for them to be indexed, then delete one behind the index
+        AuthorDTO found = authorMapper.authorToAuthorDTO(author);
+        found.setDescription("Wrote the Earthsea cycle");
+        found = authorService.save(found);
+        AuthorDTO missing = authorMapper.authorToAuthorDTO(author);
+        missing.setDescription("Earthsea, then Earthsea again");
+        missing = authorService.save(missing);
+        authorRepository.delete(missing.getId());
+
+        try {
+            // The missing author is neither returned nor counted
+            restAuthorMockMvc.perform(get("/api/_search/authors?q=earthsea"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Total-Count", "1"))
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$.[0].id").value(found.getId().intValue()));
+        } finally {
+            authorService.delete(found.getId());
+            authorSearchRepository.delete(missing.getId());
+        }
+    }
+
+    @Test
+    public void searchAuthorsDeletedDuringIndexRebuild() throws Exception {
+        authorSearchRepository.startRebuild();
+        try {
+            // The rebuild read the author before it was deleted, then indexes it after
+            authorSearchRepository.delete(Long.MAX_VALUE);
+            authorSearchRepository.saveIfAbsent(Long.MAX_VALUE, "Wrote the Earthsea cycle");
+        } finally {
+            authorSearchRepository.finishRebuild();
+        }
+
+        assertThat(authorSearchRepository.search("earthsea")).doesNotContain(Long.MAX_VALUE);
+    }
+
     @Test
     @Transactional
     public void getAuthor() throws Exception {
@@ -145,6 +752,71 @@ public class AuthorResourceIntTest {
             .andExpect(jsonPath("$.timestamp").value(DEFAULT_TIMESTAMP_STR));
     }
 
+    @Test
+    @Transactional
+    public void getAuthorNotModified() throws Exception {
+        // Initialize the database
+        authorRepository.saveAndFlush(author);
+
+        String eTag = restAuthorMockMvc.perform(get("/api/authors/{id}", author.getId()))
+            .andExpect(status().isOk())
+            .andExpect(header().string("ETag", startsWith("\"")))
+            .andReturn().getResponse().getHeader("ETag");
+
+        // The same author is not sent again
+        restAuthorMockMvc.perform(get("/api/authors/{id}", author.getId()).header("If-None-Match", eTag))
+            .andExpect(status().isNotModified())
+            .andExpect(header().string("ETag", eTag))
+            .andExpect(content().string(""));
+
+        // A changed author is sent with a new ETag
+        author.setDescription(UPDATED_DESCRIPTION);
+        authorRepository.saveAndFlush(author);
+        restAuthorMockMvc.perform(get("/api/authors/{id}", author.getId()).header("If-None-Match", eTag))
+            .andExpect(status().isOk())
+            .andExpect(header().string("ETag", not(eTag)))
+            .andExpect(jsonPath("$.description").value(UPDATED_DESCRIPTION));
+    }
+
+    @Test
+    @Transactional
+    public void getAllAuthorsNotModified() throws Exception {
+        // Initialize the database
+        authorRepository.saveAndFlush(author);
+
+        String eTag = restAuthorMockMvc.perform(get("/api/authors?sort=id,desc"))
+            .andExpect(status().isOk())
+            .andReturn().getResponse().getHeader("ETag");
+
+        restAuthorMockMvc.perform(get("/api/authors?sort=id,desc").header("If-None-Match", "\"other\", " + eTag))
+            .andExpect(status().isNotModified())
+            .andExpect(content().string(""));
+    }
+
+    @Test
+    @Transactional
+    public void getAuthorAsSmileAndCbor() throws Exception {
+        // Initialize the database
+        authorRepository.saveAndFlush(author);
+
+        byte[] smile = restAuthorMockMvc.perform(get("/api/authors/{id}", author.getId())
+            .accept(JacksonConfiguration.APPLICATION_SMILE_VALUE))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(JacksonConfiguration.APPLICATION_SMILE_VALUE))
+            .andReturn().getResponse().getContentAsByteArray();
+        JsonNode smileAuthor = JacksonConfiguration.smileObjectMapper(new Jackson2ObjectMapperBuilder()).readTree(smile);
+        assertThat(smileAuthor.get("description").asText()).isEqualTo(DEFAULT_DESCRIPTION);
+        assertThat(smileAuthor.get("timestamp").asText()).isEqualTo(DEFAULT_TIMESTAMP_STR);
+
+        byte[] cbor = restAuthorMockMvc.perform(get("/api/authors/{id}", author.getId())
+            .accept(JacksonConfiguration.APPLICATION_CBOR_VALUE))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(JacksonConfiguration.APPLICATION_CBOR_VALUE))
+            .andReturn().getResponse().getContentAsByteArray();
+        JsonNode cborAuthor = JacksonConfiguration.cborObjectMapper(new Jackson2ObjectMapperBuilder()).readTree(cbor);
+        assertThat(cborAuthor.get("timestamp").asText()).isEqualTo(DEFAULT_TIMESTAMP_STR);
+    }
+
     @Test
     @Transactional
     public void getNonExistingAuthor() throws Exception {
@@ -180,6 +852,157 @@ public class AuthorResourceIntTest {
         assertThat(testAuthor.getTimestamp()).isEqualTo(UPDATED_TIMESTAMP);
     }
 
+    @Test
+    @Transactional
+    public void updateAuthorTimestamp() throws Exception {
+        // Initialize the database
+        authorRepository.saveAndFlush(author);
+
+        // Update the timestamp of the author, then of a missing one
+        restAuthorMockMvc.perform(put("/api/authors/{id}/timestamp", author.getId())
+                .param("timestamp", UPDATED_TIMESTAMP.toInstant().toString()))
+                .andExpect(status().isOk());
+        restAuthorMockMvc.perform(put("/api/authors/{id}/timestamp", Long.MAX_VALUE)
+                .param("timestamp", UPDATED_TIMESTAMP.toInstant().toString()))
+                .andExpect(status().isNotFound());
+
+        // Validate the Author in the database
+        Author testAuthor = authorRepository.findOne(author.getId());
+        assertThat(testAuthor.getTimestamp().toInstant()).isEqualTo(UPDATED_TIMESTAMP.toInstant());
+        assertThat(testAuthor.getDescription()).isEqualTo(DEFAULT_DESCRIPTION);
+    }
+
+    @Test
+    public void updateAuthorTimestampBehind() throws Exception {
+        // Initialize the database, committing the author for the write-behind to find it
+        authorRepository.saveAndFlush(author);
+        jHipsterProperties.getWriteBehind().setEnabled(true);
+        try {
+            // Update the timestamp of the author twice, the updates are queued
+            restAuthorMockMvc.perform(put("/api/authors/{id}/timestamp", author.getId())
+                    .param("timestamp", UPDATED_TIMESTAMP.minusHours(1).toInstant().toString()))
+                    .andExpect(status().isAccepted());
+            restAuthorMockMvc.perform(put("/api/authors/{id}/timestamp", author.getId())
+                    .param("timestamp", UPDATED_TIMESTAMP.toInstant().toString()))
+                    .andExpect(status().isAccepted());
+
+            // Validate the last update is written by the flush
+            authorTimestampWriter.flush();
+            Author testAuthor = authorRepository.findOne(author.getId());
+            assertThat(testAuthor.getTimestamp().toInstant()).isEqualTo(UPDATED_TIMESTAMP.toInstant());
+        } finally {
+            jHipsterProperties.getWriteBehind().setEnabled(false);
+            authorRepository.delete(author.getId());
+        }
+    }
+
+    @Test
+    public void archiveOldAuthors() throws Exception {
+        // Initialize the database with an old author, committed for the archival batches to find it
+        authorRepository.saveAndFlush(author);
+        jHipsterProperties.getArchive().setEnabled(true);
+        try {
+            authorService.archiveOldAuthors();
+
+            // The author is only found when asking for the archive
+            assertThat(authorRepository.findOne(author.getId())).isNull();
+            restAuthorMockMvc.perform(get("/api/authors/{id}", author.getId()))
+                .andExpect(status().isNotFound());
+            restAuthorMockMvc.perform(get("/api/authors/{id}", author.getId()).param("archived", "true"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(author.getId().intValue()))
+                .andExpect(jsonPath("$.description").value(DEFAULT_DESCRIPTION))
+                .andExpect(jsonPath("$.timestamp").value(DEFAULT_TIMESTAMP_STR));
+            restAuthorMockMvc.perform(get("/api/authors").param("archived", "true"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Total-Count", "1"))
+                .andExpect(jsonPath("$.[*].id").value(hasItem(author.getId().intValue())));
+        } finally {
+            jHipsterProperties.getArchive().setEnabled(false);
+            archivedAuthorRepository.deleteAll();
+            if (authorRepository.exists(author.getId())) {
+                authorRepository.delete(author.getId());
+            }
+        }
+    }
+
+    @Test
+    public void getAllArchivedAuthorsWithUnsupportedParameters() throws Exception {
+        // The parameters of the other listings are rejected rather than ignored
+        restAuthorMockMvc.perform(get("/api/authors").param("archived", "true").param("after", "1"))
+            .andExpect(status().isBadRequest());
+        restAuthorMockMvc.perform(get("/api/authors").param("archived", "true").param("fields", "id"))
+            .andExpect(status().isBadRequest());
+        restAuthorMockMvc.perform(get("/api/authors").param("archived", "true")
+                .param("from", DEFAULT_TIMESTAMP.toInstant().toString()).param("to", UPDATED_TIMESTAMP.toInstant().toString()))
+            .andExpect(status().isBadRequest());
+
+        // Not asking for the archive selects the other listings
+        restAuthorMockMvc.perform(get("/api/authors").param("archived", "false").param("fields", "id"))
+            .andExpect(status().isOk());
+    }
+
+    @Test
+    @Transactional
+    public void updateAuthorWithStaleVersion() throws Exception {
+        // Initialize the database
+        authorRepository.saveAndFlush(author);
+        AuthorDTO staleAuthorDTO = authorMapper.authorToAuthorDTO(author);
+        author.setDescription(UPDATED_DESCRIPTION);
+        authorRepository.saveAndFlush(author);
+
+        // An update of the previous version is rejected
+        staleAuthorDTO.setTimestamp(UPDATED_TIMESTAMP);
+        restAuthorMockMvc.perform(put("/api/authors")
+                .contentType(TestUtil.APPLICATION_JSON_UTF8)
+                .content(TestUtil.convertObjectToJsonBytes(staleAuthorDTO)))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    @Transactional
+    public void updateAuthorIfMatch() throws Exception {
+        // Initialize the database
+        authorRepository.saveAndFlush(author);
+        String eTag = restAuthorMockMvc.perform(get("/api/authors/{id}", author.getId()))
+            .andReturn().getResponse().getHeader("ETag");
+
+        AuthorDTO authorDTO = authorMapper.authorToAuthorDTO(author);
+        authorDTO.setVersion(null);
+        authorDTO.setDescription(UPDATED_DESCRIPTION);
+        restAuthorMockMvc.perform(put("/api/authors")
+                .header("If-Match", eTag)
+                .contentType(TestUtil.APPLICATION_JSON_UTF8)
+                .content(TestUtil.convertObjectToJsonBytes(authorDTO)))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", not(eTag)))
+                .andExpect(jsonPath("$.version").value(author.getVersion().intValue()));
+
+        // The author does not match the ETag any more
+        authorDTO.setTimestamp(UPDATED_TIMESTAMP);
+        restAuthorMockMvc.perform(put("/api/authors")
+                .header("If-Match", eTag)
+                .contentType(TestUtil.APPLICATION_JSON_UTF8)
+                .content(TestUtil.convertObjectToJsonBytes(authorDTO)))
+                .andExpect(status().isPreconditionFailed());
+
+        Author testAuthor = authorRepository.findOne(author.getId());
+        assertThat(testAuthor.getDescription()).isEqualTo(UPDATED_DESCRIPTION);
+        assertThat(testAuthor.getTimestamp()).isEqualTo(DEFAULT_TIMESTAMP);
+    }
+
+    @Test
+    @Transactional
+    public void updateNonExistingAuthor() throws Exception {
+        AuthorDTO authorDTO = authorMapper.authorToAuthorDTO(author);
+        authorDTO.setId(Long.MAX_VALUE);
+
+        restAuthorMockMvc.perform(put("/api/authors")
+                .contentType(TestUtil.APPLICATION_JSON_UTF8)
+                .content(TestUtil.convertObjectToJsonBytes(authorDTO)))
+                .andExpect(status().isNotFound());
+    }
+
     @Test
     @Transactional
     public void deleteAuthor() throws Exception {
@@ -1,6 +1,7 @@
 package com.github.mgurov.jhipsterpgrnd.web.rest;
 
 import com.github.mgurov.jhipsterpgrnd.JhipsterpgrndApp;
+import com.github.mgurov.jhipsterpgrnd.config.datasource.StatementCounter;
 import com.github.mgurov.jhipsterpgrnd.domain.User;
 import com.github.mgurov.jhipsterpgrnd.repository.UserRepository;
 import com.github.mgurov.jhipsterpgrnd.service.UserService;
@@ -9,6 +10,7 @@ import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.springframework.boot.test.IntegrationTest;
 import org.springframework.boot.test.SpringApplicationConfiguration;
+import org.springframework.data.web.PageableHandlerMethodArgumentResolver;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
 import org.springframework.test.context.web.WebAppConfiguration;
@@ -19,6 +21,7 @@ import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import javax.inject.Inject;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.hasItem;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -40,6 +43,9 @@ public class UserResourceIntTest {
     @Inject
     private UserService userService;
 
+    @Inject
+    private PageableHandlerMethodArgumentResolver pageableArgumentResolver;
+
     private MockMvc restUserMockMvc;
 
     @Before
@@ -47,7 +53,8 @@ public class UserResourceIntTest {
         UserResource userResource = new UserResource();
         ReflectionTestUtils.setField(userResource, "userRepository", userRepository);
         ReflectionTestUtils.setField(userResource, "userService", userService);
-        this.restUserMockMvc = MockMvcBuilders.standaloneSetup(userResource).build();
+        this.restUserMockMvc = MockMvcBuilders.standaloneSetup(userResource)
+            .setCustomArgumentResolvers(pageableArgumentResolver).build();
     }
 
     @Test
@@ -59,6 +66,40 @@ public class UserResourceIntTest {
                 .andExpect(jsonPath("$.lastName").value("Administrator"));
     }
 
+    @Test
+    public void testGetAllUsersInConstantQueries() throws Exception {
+        // The ids of the page are read, then the users with their authorities, whatever the number of users
+        StatementCounter counter = StatementCounter.start();
+        try {
+            restUserMockMvc.perform(get("/api/users?sort=id,asc&count=false")
+                    .accept(MediaType.APPLICATION_JSON))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.[*].login").value(hasItem("admin")))
+                    .andExpect(jsonPath("$.[*].authorities[*]").value(hasItem("ROLE_ADMIN")));
+        } finally {
+            counter.stop();
+        }
+        assertThat(counter.getStatements()).isEqualTo(2);
+    }
+
+    @Test
+    public void testGetAllUserFields() throws Exception {
+        // The fields of the page are read, then the authorities of its users, whatever the number of users
+        StatementCounter counter = StatementCounter.start();
+        try {
+            restUserMockMvc.perform(get("/api/users?sort=id,asc&count=false&fields=login,authorities")
+                    .accept(MediaType.APPLICATION_JSON))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.[*].login").value(hasItem("admin")))
+                    .andExpect(jsonPath("$.[*].authorities[*]").value(hasItem("ROLE_ADMIN")))
+                    .andExpect(jsonPath("$.[*].id").doesNotExist())
+                    .andExpect(jsonPath("$.[*].email").doesNotExist());
+        } finally {
+            counter.stop();
+        }
+        assertThat(counter.getStatements()).isEqualTo(2);
+    }
+
     @Test
     public void testGetUnknownUser() throws Exception {
         restUserMockMvc.perform(get("/api/users/unknown")